@@ -0,0 +1,105 @@
+package com.crowdaid.backend.geo;
+
+import com.crowdaid.backend.model.HelpRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius filter over the candidates of a bounding-box query: the entity stream with the
+ * per-candidate haversine that HelpRequestServiceImpl used before {@link HaversineKernel},
+ * against the kernel on entities and on primitive columns. Candidates are spread over a
+ * 60km square with a 10km radius, so about a tenth of them are hits.
+ * <p>
+ * Run with {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.include=HaversineBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HaversineBenchmark {
+
+    private static final double LAT = 52.520;
+    private static final double LNG = 13.405;
+    private static final double RADIUS_KM = 10;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int candidates;
+
+    private List<HelpRequest> requests;
+    private double[] lats;
+    private double[] lngs;
+    private double[] cosLats;
+    private int[] hitIndex;
+    private double[] hitDistanceKm;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        requests = new ArrayList<>(candidates);
+        lats = new double[candidates];
+        lngs = new double[candidates];
+        cosLats = new double[candidates];
+        hitIndex = new int[candidates];
+        hitDistanceKm = new double[candidates];
+        for (int i = 0; i < candidates; i++) {
+            double lat = LAT + (random.nextDouble() - 0.5) * 0.54;
+            double lng = LNG + (random.nextDouble() - 0.5) * 0.88;
+            HelpRequest request = new HelpRequest();
+            request.setId((long) i);
+            request.setLatitude(lat);
+            request.setLongitude(lng);
+            requests.add(request);
+            lats[i] = lat;
+            lngs[i] = lng;
+            cosLats[i] = Math.cos(Math.toRadians(lat));
+        }
+    }
+
+    @Benchmark
+    public List<HelpRequest> legacyEntityStream() {
+        return requests.stream()
+                .filter(request -> legacyDistance(LAT, LNG, request.getLatitude(), request.getLongitude()) <= RADIUS_KM)
+                .toList();
+    }
+
+    @Benchmark
+    public List<HelpRequest> kernelEntityStream() {
+        HaversineKernel kernel = new HaversineKernel(LAT, LNG, RADIUS_KM);
+        return requests.stream()
+                .filter(request -> kernel.contains(request.getLatitude(), request.getLongitude()))
+                .toList();
+    }
+
+    @Benchmark
+    public int kernelColumns() {
+        HaversineKernel kernel = new HaversineKernel(LAT, LNG, RADIUS_KM);
+        return kernel.filter(lats, lngs, cosLats, candidates, hitIndex, hitDistanceKm);
+    }
+
+    // HelpRequestServiceImpl.calculateDistance before the kernel replaced it
+    private static double legacyDistance(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                  Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                  Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return GeoMath.EARTH_RADIUS_KM * c;
+    }
+}
@@ -0,0 +1,116 @@
+package com.crowdaid.backend.geo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearby search served by {@link PendingRequestIndex}'s {@link GridIndex} against the database
+ * path HelpRequestServiceImpl falls back to before the index is ready: the bounding-box query
+ * on an indexed table followed by the radius filter. The database is in-memory H2, so the
+ * numbers leave out the network round trip and entity mapping the real fallback also pays.
+ * Pending requests are spread over a 2 degree square around the query point; the 20000km
+ * radius covers the whole globe and exercises the index's full-scan cap.
+ * <p>
+ * Run with {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.include=PendingIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PendingIndexBenchmark {
+
+    private static final double LAT = 52.520;
+    private static final double LNG = 13.405;
+
+    @Param({"10000", "100000"})
+    private int requests;
+
+    @Param({"5", "50", "20000"})
+    private double radiusKm;
+
+    private GridIndex<Long> index;
+    private Connection connection;
+    private PreparedStatement boxQuery;
+
+    @Setup
+    public void setUp() throws SQLException {
+        index = new GridIndex<>(new GeoGrid(0.05));
+        connection = DriverManager.getConnection("jdbc:h2:mem:pending-index-bench;MODE=MySQL");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE help_requests (id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL, "
+                    + "latitude DECIMAL(10, 8), longitude DECIMAL(11, 8))");
+            statement.execute("CREATE INDEX idx_help_requests_status_location ON help_requests(status, latitude, longitude)");
+        }
+
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO help_requests (id, status, latitude, longitude) VALUES (?, 'PENDING', ?, ?)")) {
+            for (long id = 1; id <= requests; id++) {
+                double lat = LAT + (random.nextDouble() - 0.5) * 2;
+                double lng = LNG + (random.nextDouble() - 0.5) * 2;
+                index.put(id, lat, lng, id);
+                insert.setLong(1, id);
+                insert.setDouble(2, lat);
+                insert.setDouble(3, lng);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        boxQuery = connection.prepareStatement("SELECT id, latitude, longitude FROM help_requests "
+                + "WHERE status = 'PENDING' AND latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> gridIndex() {
+        return index.findWithin(LAT, LNG, radiusKm);
+    }
+
+    @Benchmark
+    public List<Long> databaseBoundingBox() throws SQLException {
+        double[] box = GeoMath.boundingBox(LAT, LNG, radiusKm);
+        HaversineKernel kernel = new HaversineKernel(LAT, LNG, radiusKm);
+        boxQuery.setDouble(1, box[0]);
+        boxQuery.setDouble(2, box[1]);
+        boxQuery.setDouble(3, box[2]);
+        boxQuery.setDouble(4, box[3]);
+
+        List<Long> result = new ArrayList<>();
+        try (ResultSet rows = boxQuery.executeQuery()) {
+            while (rows.next()) {
+                if (kernel.contains(rows.getDouble(2), rows.getDouble(3))) {
+                    result.add(rows.getLong(1));
+                }
+            }
+        }
+        return result;
+    }
+}
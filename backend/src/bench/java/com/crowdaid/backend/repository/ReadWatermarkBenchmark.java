@@ -0,0 +1,162 @@
+package com.crowdaid.backend.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a long conversation as it grows: the other participant sends a message, then the
+ * reader marks the conversation read and asks for the unread count. The per-message
+ * {@code is_read} flags loaded every message of the conversation and updated the unread ones;
+ * the watermark is a single-row upsert and an index range count, using the statements in
+ * {@link MessageRepository}. Runs on in-memory H2 in MySQL mode, like the test profile; H2
+ * walks the conversation's index range for {@code MAX(id)} where MySQL reads a single entry,
+ * so the watermark numbers here are pessimistic.
+ * <p>
+ * Run with {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.include=ReadWatermarkBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadWatermarkBenchmark {
+
+    private static final long HELP_REQUEST_ID = 1;
+    private static final long READER_ID = 1;
+    private static final long SENDER_ID = 2;
+
+    @Param({"1000", "10000"})
+    private int messages;
+
+    private Connection connection;
+    private PreparedStatement insertMessage;
+    private PreparedStatement loadConversation;
+    private PreparedStatement setReadFlag;
+    private PreparedStatement countUnreadFlags;
+    private PreparedStatement markAllRead;
+    private PreparedStatement countUnread;
+    private long nextId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:read-watermark-bench;MODE=MySQL");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE messages (id BIGINT PRIMARY KEY, content VARCHAR(1000) NOT NULL, "
+                    + "help_request_id BIGINT NOT NULL, sender_id BIGINT NOT NULL, is_read BOOLEAN NOT NULL)");
+            statement.execute("CREATE INDEX idx_messages_help_request_id_id ON messages(help_request_id, id)");
+            statement.execute("CREATE TABLE message_read_watermarks (help_request_id BIGINT NOT NULL, "
+                    + "user_id BIGINT NOT NULL, last_read_message_id BIGINT NOT NULL DEFAULT 0, "
+                    + "PRIMARY KEY (help_request_id, user_id))");
+        }
+
+        insertMessage = connection.prepareStatement(
+                "INSERT INTO messages (id, content, help_request_id, sender_id, is_read) VALUES (?, ?, ?, ?, FALSE)");
+        // Both participants take turns, so half of the history is from the other side
+        for (int i = 0; i < messages; i++) {
+            insertMessage.setLong(1, ++nextId);
+            insertMessage.setString(2, "Message " + nextId);
+            insertMessage.setLong(3, HELP_REQUEST_ID);
+            insertMessage.setLong(4, i % 2 == 0 ? SENDER_ID : READER_ID);
+            insertMessage.addBatch();
+        }
+        insertMessage.executeBatch();
+
+        loadConversation = connection.prepareStatement(
+                "SELECT id, content, sender_id, is_read FROM messages WHERE help_request_id = ?");
+        setReadFlag = connection.prepareStatement("UPDATE messages SET is_read = TRUE WHERE id = ?");
+        countUnreadFlags = connection.prepareStatement("SELECT COUNT(*) FROM messages "
+                + "WHERE help_request_id = ? AND sender_id <> ? AND is_read = FALSE");
+        markAllRead = connection.prepareStatement(
+                "INSERT INTO message_read_watermarks (help_request_id, user_id, last_read_message_id) "
+                + "SELECT ?, ?, COALESCE(MAX(m.id), 0) FROM messages m WHERE m.help_request_id = ? "
+                + "ON DUPLICATE KEY UPDATE last_read_message_id = "
+                + "GREATEST(last_read_message_id, VALUES(last_read_message_id))");
+        countUnread = connection.prepareStatement("SELECT COUNT(*) FROM messages m WHERE m.help_request_id = ? "
+                + "AND m.id > COALESCE((SELECT w.last_read_message_id FROM message_read_watermarks w "
+                + "WHERE w.help_request_id = ? AND w.user_id = ?), 0) AND m.sender_id <> ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long readFlags() throws SQLException {
+        receiveMessage();
+
+        // markMessagesAsRead before the watermark: every message loaded, unread ones saved
+        List<Long> unread = new ArrayList<>();
+        loadConversation.setLong(1, HELP_REQUEST_ID);
+        try (ResultSet rows = loadConversation.executeQuery()) {
+            while (rows.next()) {
+                rows.getString(2);
+                if (rows.getLong(3) != READER_ID && !rows.getBoolean(4)) {
+                    unread.add(rows.getLong(1));
+                }
+            }
+        }
+        for (Long id : unread) {
+            setReadFlag.setLong(1, id);
+            setReadFlag.addBatch();
+        }
+        setReadFlag.executeBatch();
+
+        countUnreadFlags.setLong(1, HELP_REQUEST_ID);
+        countUnreadFlags.setLong(2, READER_ID);
+        return count(countUnreadFlags);
+    }
+
+    @Benchmark
+    public long readWatermark() throws SQLException {
+        receiveMessage();
+
+        markAllRead.setLong(1, HELP_REQUEST_ID);
+        markAllRead.setLong(2, READER_ID);
+        markAllRead.setLong(3, HELP_REQUEST_ID);
+        markAllRead.executeUpdate();
+
+        countUnread.setLong(1, HELP_REQUEST_ID);
+        countUnread.setLong(2, HELP_REQUEST_ID);
+        countUnread.setLong(3, READER_ID);
+        countUnread.setLong(4, READER_ID);
+        return count(countUnread);
+    }
+
+    // Helper method to append a message from the other participant to the conversation
+    private void receiveMessage() throws SQLException {
+        insertMessage.setLong(1, ++nextId);
+        insertMessage.setString(2, "Message " + nextId);
+        insertMessage.setLong(3, HELP_REQUEST_ID);
+        insertMessage.setLong(4, SENDER_ID);
+        insertMessage.executeUpdate();
+    }
+
+    private static long count(PreparedStatement query) throws SQLException {
+        try (ResultSet rows = query.executeQuery()) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+}
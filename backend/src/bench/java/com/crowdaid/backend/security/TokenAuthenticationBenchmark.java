@@ -0,0 +1,89 @@
+package com.crowdaid.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a bearer token on a REST request or STOMP CONNECT: verifying the
+ * signature and building the principal from the claims every time, against a hit in
+ * {@link VerifiedTokenCache}. Tokens carry the principal, so neither path loads the user.
+ * <p>
+ * Run with {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.include=TokenAuthenticationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenAuthenticationBenchmark {
+
+    // 512-bit key, as HS512 requires
+    private static final String SECRET =
+            "Y3Jvd2RhaWQtYmVuY2htYXJrLXNlY3JldC1rZXktdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHM1MTItc2lnbmluZw==";
+
+    // Distinct tokens in rotation, e.g. many volunteers reconnecting at once
+    @Param({"1", "1000"})
+    private int tokens;
+
+    private JwtTokenProvider tokenProvider;
+    private VerifiedTokenCache cache;
+    private String[] issued;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        TokenRevocationRegistry revocationRegistry = new TokenRevocationRegistry();
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000);
+        ReflectionTestUtils.setField(tokenProvider, "revocationRegistry", revocationRegistry);
+        cache = new VerifiedTokenCache(tokenProvider, username -> {
+            throw new IllegalStateException("Tokens carry the principal; no lookup expected");
+        }, revocationRegistry, 10_000, new SimpleMeterRegistry());
+
+        issued = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            UserPrincipal user = new UserPrincipal((long) i, "Volunteer " + i, "volunteer" + i,
+                    "volunteer" + i + "@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_VOLUNTEER")));
+            issued[i] = tokenProvider.generateToken(
+                    new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+            cache.authenticate(issued[i]);
+        }
+    }
+
+    @Benchmark
+    public UserDetails verifyEveryTime() {
+        Claims claims = tokenProvider.parseClaims(nextToken());
+        return tokenProvider.getPrincipal(claims);
+    }
+
+    @Benchmark
+    public UserDetails cachedHit() {
+        return cache.authenticate(nextToken());
+    }
+
+    private String nextToken() {
+        String token = issued[next];
+        next = next + 1 == tokens ? 0 : next + 1;
+        return token;
+    }
+}
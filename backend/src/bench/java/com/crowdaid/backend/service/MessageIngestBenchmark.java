@@ -0,0 +1,118 @@
+package com.crowdaid.backend.service;
+
+import com.crowdaid.backend.CrowdAidApplication;
+import com.crowdaid.backend.dto.MessageRequest;
+import com.crowdaid.backend.dto.MessageResponse;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.model.RoleName;
+import com.crowdaid.backend.model.User;
+import com.crowdaid.backend.repository.HelpRequestRepository;
+import com.crowdaid.backend.repository.UserRepository;
+import com.crowdaid.backend.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chat send throughput with many concurrent senders: one transaction per message
+ * ({@link MessageIngestMode#DIRECT}) against {@link MessageIngestPipeline} batching them
+ * ({@link MessageIngestMode#GROUP_COMMIT}). Each operation is one send, answered after its
+ * commit. The application runs on the in-memory H2 test profile, where a commit does not wait
+ * for a disk flush, so the gap is smaller than it is against MySQL.
+ * <p>
+ * Run with {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.include=MessageIngestBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class MessageIngestBenchmark {
+
+    // Conversations the senders spread over, so batches mix rooms as in production
+    private static final int ROOMS = 16;
+
+    @Param({"DIRECT", "GROUP_COMMIT"})
+    private MessageIngestMode mode;
+
+    private ConfigurableApplicationContext context;
+    private MessageService messageService;
+    private UserPrincipal[] senders;
+    private long[] roomIds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CrowdAidApplication.class)
+                .run("--spring.profiles.active=test", "--server.port=0",
+                        "--app.messaging.ingest-mode=" + mode, "--logging.level.root=WARN");
+        messageService = context.getBean(MessageService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        HelpRequestRepository helpRequestRepository = context.getBean(HelpRequestRepository.class);
+
+        senders = new UserPrincipal[ROOMS];
+        roomIds = new long[ROOMS];
+        for (int i = 0; i < ROOMS; i++) {
+            User requester = saveUser(userRepository, "requester" + i);
+            User volunteer = saveUser(userRepository, "volunteer" + i);
+
+            HelpRequest helpRequest = new HelpRequest();
+            helpRequest.setDescription("Groceries");
+            helpRequest.setAddress("Alexanderplatz 1");
+            helpRequest.setLatitude(52.52);
+            helpRequest.setLongitude(13.405);
+            helpRequest.setRequester(requester);
+            helpRequest.setVolunteer(volunteer);
+            helpRequest.setStatus(HelpRequest.Status.ACCEPTED);
+            helpRequest.setCreatedAt(Instant.now());
+            helpRequest.setUpdatedAt(Instant.now());
+            roomIds[i] = helpRequestRepository.save(helpRequest).getId();
+
+            senders[i] = new UserPrincipal(requester.getId(), requester.getName(), requester.getUsername(),
+                    requester.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MessageResponse send() {
+        int room = Math.floorMod(next.getAndIncrement(), ROOMS);
+        MessageRequest request = new MessageRequest();
+        request.setHelpRequestId(roomIds[room]);
+        request.setContent("On my way");
+        return messageService.submitMessage(request, senders[room]).join();
+    }
+
+    private static User saveUser(UserRepository userRepository, String username) {
+        User user = new User(username, username, username + "@example.com", "password");
+        user.setRoles(Set.of(RoleName.ROLE_USER, RoleName.ROLE_VOLUNTEER));
+        user.setCreatedAt(Instant.now());
+        user.setUpdatedAt(Instant.now());
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,308 @@
+package com.crowdaid.backend.cache;
+
+import com.crowdaid.backend.dto.MessageResponse;
+import com.crowdaid.backend.event.HelpRequestChangedEvent;
+import com.crowdaid.backend.event.MessageSentEvent;
+import com.crowdaid.backend.model.Message;
+import com.crowdaid.backend.repository.MessageRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The most recent messages of each active conversation, kept in a per-room ring buffer so
+ * history refetches (reconnects, extra tabs) do not hit the database.
+ * <p>
+ * A room holds every committed message with an id at or above its oldest entry, so any page
+ * inside that window can be answered exactly; a room that has never dropped a message holds the
+ * whole conversation. Rooms are loaded on first read and then follow {@link MessageSentEvent}s.
+ * Entries are shared and carry no read flag; callers copy them with
+ * {@link MessageResponse#withRead(boolean)}. Total size is capped by an estimate of retained
+ * bytes, evicting the least recently used rooms first.
+ */
+@Component
+public class ChatHistoryBuffer {
+
+    // Rough heap cost of a MessageResponse with its Instant and shared UserProfile reference
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final MessageRepository messageRepository;
+    private final boolean enabled;
+    private final int roomCapacity;
+    private final long maxBytes;
+    private final LinkedHashMap<Long, Room> rooms = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long totalBytes;
+
+    public ChatHistoryBuffer(MessageRepository messageRepository,
+                             @Value("${app.messaging.history-buffer.enabled:true}") boolean enabled,
+                             @Value("${app.messaging.history-buffer.room-capacity:200}") int roomCapacity,
+                             @Value("${app.messaging.history-buffer.max-bytes:33554432}") long maxBytes,
+                             MeterRegistry meterRegistry) {
+        this.messageRepository = messageRepository;
+        this.enabled = enabled;
+        this.roomCapacity = roomCapacity;
+        this.maxBytes = maxBytes;
+        bindTo(meterRegistry);
+    }
+
+    /**
+     * A page of a conversation, oldest first, with the same semantics as the keyset queries in
+     * {@link MessageRepository}: at most {@code size} messages after {@code afterId}, or the last
+     * {@code size} before {@code beforeId} (or overall). Returns null when the page is not fully
+     * inside the buffered window and has to come from the database.
+     * <p>
+     * Must be called outside a transaction: a cold room is loaded with its own query, and a
+     * snapshot opened earlier could miss messages committed before the room started following
+     * new ones.
+     */
+    public List<MessageResponse> findPage(Long helpRequestId, Long beforeId, Long afterId, int size) {
+        if (!enabled || size > roomCapacity) {
+            return null;
+        }
+
+        Room room;
+        boolean cold;
+        synchronized (this) {
+            room = rooms.get(helpRequestId);
+            if (room == null) {
+                room = new Room();
+                rooms.put(helpRequestId, room);
+            }
+            cold = room.loading;
+        }
+        if (cold) {
+            load(helpRequestId, room);
+        }
+
+        List<MessageResponse> page;
+        synchronized (this) {
+            page = room.loading ? null : room.page(beforeId, afterId, size);
+        }
+        if (page != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        if (!enabled) {
+            return;
+        }
+        MessageResponse message = event.getMessage();
+        synchronized (this) {
+            Room room = rooms.get(message.getHelpRequestId());
+            if (room == null) {
+                return;
+            }
+            if (room.loading) {
+                room.pending.add(message);
+            } else {
+                long delta = room.insert(message);
+                room.bytes += delta;
+                totalBytes += delta;
+                evictIfNeeded();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHelpRequestChanged(HelpRequestChangedEvent event) {
+        if (event.getType() != HelpRequestChangedEvent.Type.DELETED) {
+            return;
+        }
+        synchronized (this) {
+            Room room = rooms.remove(event.getHelpRequest().getId());
+            if (room != null) {
+                totalBytes -= room.bytes;
+            }
+        }
+    }
+
+    // Helper method to fill a new room from the database, merging messages committed meanwhile
+    private void load(Long helpRequestId, Room room) {
+        List<Message> latest;
+        try {
+            latest = messageRepository.findPageBefore(helpRequestId, Long.MAX_VALUE, PageRequest.of(0, roomCapacity));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                if (rooms.get(helpRequestId) == room) {
+                    rooms.remove(helpRequestId);
+                }
+            }
+            throw e;
+        }
+
+        List<MessageResponse> loaded = new ArrayList<>(latest.size());
+        for (Message message : latest) {
+            loaded.add(new MessageResponse(message));
+        }
+        Collections.reverse(loaded);
+
+        synchronized (this) {
+            if (!room.loading) {
+                return;
+            }
+            room.complete = loaded.size() < roomCapacity;
+            for (MessageResponse message : loaded) {
+                room.bytes += room.insert(message);
+            }
+            for (MessageResponse message : room.pending) {
+                room.bytes += room.insert(message);
+            }
+            room.pending.clear();
+            room.loading = false;
+            if (rooms.get(helpRequestId) == room) {
+                totalBytes += room.bytes;
+                evictIfNeeded();
+            }
+        }
+    }
+
+    // Helper method to drop the least recently read rooms until the byte estimate fits again
+    private void evictIfNeeded() {
+        Iterator<Room> iterator = rooms.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Room room = iterator.next();
+            if (room.loading) {
+                continue;
+            }
+            totalBytes -= room.bytes;
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long estimateBytes(MessageResponse message) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (message.getContent() != null ? message.getContent().length() : 0);
+    }
+
+    /**
+     * Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size (rooms) and
+     * cache.bytes (estimated) tagged with cache=chat-history.
+     */
+    private void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", "chat-history").tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", "chat-history").tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", "chat-history").register(registry);
+        Gauge.builder("cache.size", this, buffer -> {
+            synchronized (buffer) {
+                return buffer.rooms.size();
+            }
+        }).tag("cache", "chat-history").register(registry);
+        Gauge.builder("cache.bytes", this, buffer -> {
+            synchronized (buffer) {
+                return buffer.totalBytes;
+            }
+        }).tag("cache", "chat-history").register(registry);
+    }
+
+    /**
+     * Ring buffer of one conversation ordered by message id. Guarded by the enclosing buffer.
+     */
+    private final class Room {
+        private final MessageResponse[] entries = new MessageResponse[roomCapacity];
+        private final List<MessageResponse> pending = new ArrayList<>();
+        private int head;
+        private int size;
+        private long bytes;
+        private boolean loading = true;
+        // True while nothing has been dropped, i.e. the room holds the whole conversation
+        private boolean complete;
+
+        private MessageResponse get(int index) {
+            return entries[(head + index) % entries.length];
+        }
+
+        private void set(int index, MessageResponse message) {
+            entries[(head + index) % entries.length] = message;
+        }
+
+        /**
+         * Adds a message in id order and returns the change in estimated bytes. Messages usually
+         * arrive newest last; one committed out of id order is shifted into place.
+         */
+        private long insert(MessageResponse message) {
+            int position = size;
+            while (position > 0 && get(position - 1).getId() >= message.getId()) {
+                if (get(position - 1).getId().equals(message.getId())) {
+                    return 0;
+                }
+                position--;
+            }
+
+            long delta = 0;
+            if (size == entries.length) {
+                if (position == 0) {
+                    // Older than the whole window; the window stays contiguous without it
+                    complete = false;
+                    return 0;
+                }
+                delta -= estimateBytes(get(0));
+                set(0, null);
+                head = (head + 1) % entries.length;
+                size--;
+                position--;
+                complete = false;
+            }
+
+            for (int i = size; i > position; i--) {
+                set(i, get(i - 1));
+            }
+            set(position, message);
+            size++;
+            return delta + estimateBytes(message);
+        }
+
+        private List<MessageResponse> page(Long beforeId, Long afterId, int limit) {
+            if (afterId != null) {
+                if (!complete && (size == 0 || afterId < get(0).getId())) {
+                    return null;
+                }
+                int from = 0;
+                while (from < size && get(from).getId() <= afterId) {
+                    from++;
+                }
+                return slice(from, Math.min(size, from + limit));
+            }
+
+            int to = size;
+            if (beforeId != null) {
+                while (to > 0 && get(to - 1).getId() >= beforeId) {
+                    to--;
+                }
+            }
+            if (to < limit && !complete) {
+                return null;
+            }
+            return slice(Math.max(0, to - limit), to);
+        }
+
+        private List<MessageResponse> slice(int from, int to) {
+            List<MessageResponse> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                page.add(get(i));
+            }
+            return page;
+        }
+    }
+}
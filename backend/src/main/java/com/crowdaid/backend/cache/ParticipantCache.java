@@ -0,0 +1,85 @@
+package com.crowdaid.backend.cache;
+
+import com.crowdaid.backend.event.HelpRequestChangedEvent;
+import com.crowdaid.backend.exception.ResourceNotFoundException;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.repository.HelpRequestRepository;
+import com.crowdaid.backend.repository.projection.HelpRequestParticipants;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Requester, volunteer and status of recently used help requests, so participant checks on
+ * chat traffic do not go to the database. A miss loads a three-column projection. Entries are
+ * dropped when a committed {@link HelpRequestChangedEvent} reports an accept, status change or
+ * delete, and reloaded on next use.
+ */
+@Component
+public class ParticipantCache {
+
+    private final HelpRequestRepository helpRequestRepository;
+    private final BoundedCache<Long, Participants> cache;
+    // Bumped on every invalidation so a load racing with a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public ParticipantCache(HelpRequestRepository helpRequestRepository,
+                            @Value("${app.participant-cache.max-entries:50000}") int maxEntries,
+                            MeterRegistry meterRegistry) {
+        this.helpRequestRepository = helpRequestRepository;
+        this.cache = new BoundedCache<>("help-request-participants", maxEntries);
+        cache.bindTo(meterRegistry);
+    }
+
+    /**
+     * Participants of a help request, loading them on a miss.
+     *
+     * @throws ResourceNotFoundException if the help request does not exist
+     */
+    public Participants get(Long helpRequestId) {
+        Participants participants = cache.get(helpRequestId);
+        if (participants != null) {
+            return participants;
+        }
+
+        long loadGeneration = generation.get();
+        HelpRequestParticipants row = helpRequestRepository.findParticipantsById(helpRequestId)
+                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", helpRequestId));
+        participants = new Participants(row.getRequesterId(), row.getVolunteerId(), row.getStatus());
+        if (generation.get() == loadGeneration) {
+            cache.put(helpRequestId, participants);
+        }
+        return participants;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHelpRequestChanged(HelpRequestChangedEvent event) {
+        if (event.getType() == HelpRequestChangedEvent.Type.CREATED) {
+            return;
+        }
+        generation.incrementAndGet();
+        cache.remove(event.getHelpRequest().getId());
+    }
+
+    public record Participants(Long requesterId, Long volunteerId, HelpRequest.Status status) {
+
+        public boolean isRequester(Long userId) {
+            return requesterId.equals(userId);
+        }
+
+        public boolean includes(Long userId) {
+            return requesterId.equals(userId) || (volunteerId != null && volunteerId.equals(userId));
+        }
+
+        /**
+         * The participant on the other side of a conversation with {@code userId}, or null if no
+         * volunteer has been assigned yet.
+         */
+        public Long otherThan(Long userId) {
+            return isRequester(userId) ? volunteerId : requesterId;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.crowdaid.backend.cache;
+
+import com.crowdaid.backend.repository.UserRepository;
+import com.crowdaid.backend.repository.projection.UserIdentity;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filters over every registered username and email, so checking that a name is free
+ * (signup form checks, registration) only queries the database when the filter reports a
+ * possible match. Loaded with a keyset scan at startup and kept current by {@link #add}.
+ * <p>
+ * The columns use a case- and accent-insensitive collation, so values are folded in the same way
+ * (for case, accents and trailing spaces) before hashing; otherwise a differently cased name
+ * would be reported free by the filter and only fail on the unique key. Until the scan has
+ * finished every value counts as a possible match.
+ */
+@Component
+public class UserIdentityFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityFilter.class);
+
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder lookedUp = new LongAdder();
+
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+    private volatile boolean ready;
+
+    public UserIdentityFilter(UserRepository userRepository,
+                              @Value("${app.user-identity-filter.expected-users:1000000}") long expectedUsers,
+                              @Value("${app.user-identity-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                              MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        // Placeholders until warmUp sizes the real filters; not consulted before then
+        this.usernames = new BloomFilter(1, falsePositiveRate);
+        this.emails = new BloomFilter(1, falsePositiveRate);
+        bindTo(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        // Room for the existing users to double before the false positive rate degrades
+        long capacity = Math.max(expectedUsers, 2 * userRepository.count());
+        BloomFilter loadedUsernames = new BloomFilter(capacity, falsePositiveRate);
+        BloomFilter loadedEmails = new BloomFilter(capacity, falsePositiveRate);
+        // Signups from here on are added to the new filters as well as scanned
+        usernames = loadedUsernames;
+        emails = loadedEmails;
+
+        long afterId = 0;
+        long count = 0;
+        List<UserIdentity> batch;
+        do {
+            batch = userRepository.findIdentitiesAfter(afterId, PageRequest.of(0, SCAN_BATCH_SIZE));
+            for (UserIdentity identity : batch) {
+                loadedUsernames.add(fold(identity.getUsername()));
+                loadedEmails.add(fold(identity.getEmail()));
+                afterId = identity.getId();
+            }
+            count += batch.size();
+        } while (batch.size() == SCAN_BATCH_SIZE);
+
+        ready = true;
+        logger.info("User identity filters loaded with {} users ({} bits each)", count, loadedUsernames.getBitCount());
+    }
+
+    public boolean isUsernameTaken(String username) {
+        return mightContain(usernames, username) && userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailTaken(String email) {
+        return mightContain(emails, email) && userRepository.existsByEmail(email);
+    }
+
+    /**
+     * Records a newly registered user. Call after the user is saved.
+     */
+    public void add(String username, String email) {
+        usernames.add(fold(username));
+        emails.add(fold(email));
+    }
+
+    // Helper method to consult a filter, counting the lookups it saved
+    private boolean mightContain(BloomFilter filter, String value) {
+        if (ready && !filter.mightContain(fold(value))) {
+            filtered.increment();
+            return false;
+        }
+        lookedUp.increment();
+        return true;
+    }
+
+    // Lower case without accents and trailing spaces, matching how utf8mb4_unicode_ci compares
+    private static String fold(String value) {
+        String decomposed = Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").stripTrailing();
+    }
+
+    /**
+     * Publishes user.identity.checks{result=filtered|db} for availability and signup checks.
+     */
+    private void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.identity.checks", filtered, LongAdder::sum)
+                .tag("result", "filtered").register(registry);
+        FunctionCounter.builder("user.identity.checks", lookedUp, LongAdder::sum)
+                .tag("result", "db").register(registry);
+    }
+}
@@ -1,5 +1,7 @@
 package com.crowdaid.backend.config;
 
+import com.crowdaid.backend.ratelimit.RateLimitChannelInterceptor;
+import com.crowdaid.backend.security.WebSocketAuthChannelInterceptor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -15,6 +17,15 @@ import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 @Order(Ordered.HIGHEST_PRECEDENCE + 99) // Ensure this runs before the main security config
 public class WebSocketSecurityConfig extends AbstractSecurityWebSocketMessageBrokerConfigurer {
 
+    private final WebSocketAuthChannelInterceptor authChannelInterceptor;
+    private final RateLimitChannelInterceptor rateLimitChannelInterceptor;
+
+    public WebSocketSecurityConfig(WebSocketAuthChannelInterceptor authChannelInterceptor,
+                                   RateLimitChannelInterceptor rateLimitChannelInterceptor) {
+        this.authChannelInterceptor = authChannelInterceptor;
+        this.rateLimitChannelInterceptor = rateLimitChannelInterceptor;
+    }
+
     @Override
     protected void configureInbound(MessageSecurityMetadataSourceRegistry messages) {
         messages
@@ -23,6 +34,8 @@ public class WebSocketSecurityConfig extends AbstractSecurityWebSocketMessageBro
                 "/topic/public/**",
                 "/queue/errors/**"
             ).permitAll()
+            // Pending-request deltas back the volunteer-only nearby search
+            .simpSubscribeDestMatchers("/topic/geo/**").hasRole("VOLUNTEER")
             // All other message types require authentication
             .anyMessage().authenticated();
     }
@@ -55,7 +68,7 @@ public class WebSocketSecurityConfig extends AbstractSecurityWebSocketMessageBro
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        // Configure the channel to use our custom interceptor
-        registration.interceptors(new WebSocketAuthChannelInterceptor());
+        // Authenticate on CONNECT, then rate limit SEND frames per user
+        registration.interceptors(authChannelInterceptor, rateLimitChannelInterceptor);
     }
 }
@@ -6,6 +6,7 @@ import com.crowdaid.backend.security.CurrentUser;
 import com.crowdaid.backend.security.UserPrincipal;
 import com.crowdaid.backend.service.HelpRequestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -46,8 +47,18 @@ public class HelpRequestController {
 
     @GetMapping("/my-requests")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> getUserHelpRequests(@CurrentUser UserPrincipal currentUser) {
-        List<HelpRequestResponse> response = helpRequestService.getUserHelpRequests(currentUser);
+    public ResponseEntity<?> getUserHelpRequests(
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @CurrentUser UserPrincipal currentUser) {
+        
+        // Keyset mode: newest-first pages with a continuation cursor
+        if (limit != null) {
+            return ResponseEntity.ok(helpRequestService.getUserHelpRequestPage(status, limit, cursor, currentUser));
+        }
+
+        List<HelpRequestResponse> response = helpRequestService.getUserHelpRequests(status, currentUser);
         return ResponseEntity.ok(response);
     }
 
@@ -57,13 +68,63 @@ public class HelpRequestController {
             @RequestParam("lat") Double lat,
             @RequestParam("lng") Double lng,
             @RequestParam(value = "radius", required = false) Double radiusInKm,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @CurrentUser UserPrincipal currentUser) {
         
+        // k-nearest mode: distance-ordered pages with a continuation cursor
+        if (limit != null) {
+            return ResponseEntity.ok(helpRequestService.getNearestHelpRequests(
+                lat, lng, radiusInKm, limit, cursor, currentUser));
+        }
+
         List<HelpRequestResponse> response = helpRequestService.getNearbyHelpRequests(
             lat, lng, radiusInKm, currentUser);
         return ResponseEntity.ok(response);
     }
 
+    // Geo-cell topics to subscribe to for live updates instead of polling /nearby
+    @GetMapping("/nearby/cells")
+    @PreAuthorize("hasRole('VOLUNTEER')")
+    public ResponseEntity<?> getNearbyCellTopics(
+            @RequestParam("lat") Double lat,
+            @RequestParam("lng") Double lng,
+            @RequestParam(value = "radius", required = false) Double radiusInKm) {
+        
+        List<String> topics = helpRequestService.getNearbyCellTopics(lat, lng, radiusInKm);
+        return ResponseEntity.ok(topics);
+    }
+
+    // Per-cell counts and centroids of open requests for zoomed-out map views
+    @GetMapping("/clusters")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getClusters(
+            @RequestParam("bbox") String bbox,
+            @RequestParam("zoom") int zoom) {
+        
+        return ResponseEntity.ok(helpRequestService.getClusters(bbox, zoom));
+    }
+
+    // Lightweight map pins as parallel JSON arrays
+    @GetMapping(value = "/pins", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getPins(
+            @RequestParam("bbox") String bbox,
+            @RequestParam(value = "status", required = false) String status) {
+        
+        return ResponseEntity.ok(helpRequestService.getPins(bbox, status));
+    }
+
+    // Same pins packed little-endian for clients that send Accept: application/octet-stream
+    @GetMapping(value = "/pins", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<byte[]> getPackedPins(
+            @RequestParam("bbox") String bbox,
+            @RequestParam(value = "status", required = false) String status) {
+        
+        return ResponseEntity.ok(helpRequestService.getPins(bbox, status).encode());
+    }
+
     @PostMapping("/{id}/accept")
     @PreAuthorize("hasRole('VOLUNTEER')")
     public ResponseEntity<?> acceptHelpRequest(
@@ -1,63 +1,75 @@
 package com.crowdaid.backend.controller;
 
+import com.crowdaid.backend.dto.ApiResponse;
+import com.crowdaid.backend.dto.CursorPage;
 import com.crowdaid.backend.dto.MessageRequest;
 import com.crowdaid.backend.dto.MessageResponse;
 import com.crowdaid.backend.security.CurrentUser;
 import com.crowdaid.backend.security.UserPrincipal;
+import com.crowdaid.backend.exception.AppException;
 import com.crowdaid.backend.service.MessageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/messages")
 public class MessageController {
 
+    private static final Logger logger = LoggerFactory.getLogger(MessageController.class);
+
     private final MessageService messageService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpMessageSendingOperations messagingTemplate;
 
     @Autowired
-    public MessageController(MessageService messageService, SimpMessagingTemplate messagingTemplate) {
+    public MessageController(MessageService messageService, SimpMessageSendingOperations messagingTemplate) {
         this.messageService = messageService;
         this.messagingTemplate = messagingTemplate;
     }
 
     @PostMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> sendMessage(
+    public CompletableFuture<ResponseEntity<?>> sendMessage(
             @Valid @RequestBody MessageRequest messageRequest,
             @CurrentUser UserPrincipal currentUser) {
         
-        MessageResponse response = messageService.sendMessage(messageRequest, currentUser);
-        
-        // Notify the recipient via WebSocket if they are online
-        Long recipientId = getRecipientId(messageRequest.getHelpRequestId(), currentUser);
-        if (recipientId != null) {
-            String destination = "/queue/messages/" + recipientId;
-            messagingTemplate.convertAndSend(destination, response);
-        }
-        
-        return ResponseEntity.ok(response);
+        // The room and the recipient are notified through the outbox once the message is stored
+        return messageService.submitMessage(messageRequest, currentUser)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/{helpRequestId}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getMessagesByHelpRequestId(
             @PathVariable Long helpRequestId,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", required = false) Integer size,
             @CurrentUser UserPrincipal currentUser) {
         
-        List<MessageResponse> messages = messageService.getMessagesByHelpRequestId(helpRequestId, currentUser);
+        CursorPage<MessageResponse> messages = messageService.getMessagesByHelpRequestId(
+                helpRequestId, before, after, size, currentUser);
         return ResponseEntity.ok(messages);
     }
 
+    // All open conversations with their last message and unread count, for the dashboard
+    @GetMapping("/inbox")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getInbox(@CurrentUser UserPrincipal currentUser) {
+        return ResponseEntity.ok(messageService.getInbox(currentUser));
+    }
+
     @GetMapping("/{helpRequestId}/unread-count")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getUnreadMessageCount(
@@ -85,25 +97,24 @@ public class MessageController {
             @Payload MessageRequest messageRequest,
             @CurrentUser UserPrincipal currentUser) {
         
-        // Save the message and get the response
-        MessageResponse response = messageService.sendMessage(messageRequest, currentUser);
-        
-        // Determine the recipient and send the message
-        Long recipientId = getRecipientId(helpRequestId, currentUser);
-        if (recipientId != null) {
-            String destination = "/queue/messages/" + recipientId;
-            messagingTemplate.convertAndSend(destination, response);
-        }
-        
-        // Also send to the room for real-time updates
-        String roomDestination = "/topic/chat/" + helpRequestId;
-        messagingTemplate.convertAndSend(roomDestination, response);
+        // The destination decides the room; stored, then published through the outbox
+        messageRequest.setHelpRequestId(helpRequestId);
+        messageService.submitMessage(messageRequest, currentUser)
+                .whenComplete((stored, failure) -> {
+                    if (failure != null) {
+                        reportSendFailure(helpRequestId, currentUser, failure);
+                    }
+                });
     }
 
-    // Helper method to determine the recipient of a message
-    private Long getRecipientId(Long helpRequestId, UserPrincipal currentUser) {
-        // In a real implementation, you would fetch the help request and determine the other participant
-        // For now, we'll return null and handle the logic in the service layer
-        return null;
+    // Helper method to tell a WebSocket sender their message was not stored; nobody else waits on it
+    private void reportSendFailure(Long helpRequestId, UserPrincipal currentUser, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        logger.error("Failed to store chat message from user {} in help request {}",
+                currentUser.getId(), helpRequestId, cause);
+        String message = cause instanceof AppException ? cause.getMessage() : "Message could not be sent, please retry";
+        messagingTemplate.convertAndSendToUser(currentUser.getUsername(), "/queue/errors",
+                new ApiResponse(false, message));
     }
 }
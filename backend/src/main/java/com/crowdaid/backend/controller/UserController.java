@@ -1,7 +1,11 @@
 package com.crowdaid.backend.controller;
 
+import com.crowdaid.backend.cache.UserIdentityFilter;
 import com.crowdaid.backend.dto.ApiResponse;
+import com.crowdaid.backend.dto.UserIdentityAvailability;
 import com.crowdaid.backend.dto.UserProfile;
+import com.crowdaid.backend.exception.ResourceNotFoundException;
+import com.crowdaid.backend.geo.AvailableVolunteerIndex;
 import com.crowdaid.backend.model.User;
 import com.crowdaid.backend.repository.UserRepository;
 import com.crowdaid.backend.security.CurrentUser;
@@ -12,13 +16,30 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
-@RequestMapping("/api/users")
+@RequestMapping("/api")
 public class UserController {
 
     @Autowired
     private UserRepository userRepository;
 
-    @GetMapping("/me")
+    @Autowired
+    private AvailableVolunteerIndex availableVolunteerIndex;
+
+    @Autowired
+    private UserIdentityFilter userIdentityFilter;
+
+    // Called by signup forms as the user types; usually answered without a query
+    @GetMapping("/user/checkUsernameAvailability")
+    public UserIdentityAvailability checkUsernameAvailability(@RequestParam(value = "username") String username) {
+        return new UserIdentityAvailability(!userIdentityFilter.isUsernameTaken(username));
+    }
+
+    @GetMapping("/user/checkEmailAvailability")
+    public UserIdentityAvailability checkEmailAvailability(@RequestParam(value = "email") String email) {
+        return new UserIdentityAvailability(!userIdentityFilter.isEmailTaken(email));
+    }
+
+    @GetMapping("/users/me")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<?> getCurrentUser(@CurrentUser UserPrincipal currentUser) {
         User user = userRepository.findById(currentUser.getId())
@@ -27,7 +48,7 @@ public class UserController {
         return ResponseEntity.ok(createUserProfile(user));
     }
 
-    @GetMapping("/{username}")
+    @GetMapping("/users/{username}")
     public ResponseEntity<?> getUserProfile(@PathVariable(value = "username") String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
@@ -35,7 +56,7 @@ public class UserController {
         return ResponseEntity.ok(createUserProfile(user));
     }
 
-    @PutMapping("/me")
+    @PutMapping("/users/me")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<?> updateUserProfile(
             @CurrentUser UserPrincipal currentUser,
@@ -62,11 +83,12 @@ public class UserController {
         }
         
         userRepository.save(user);
+        availableVolunteerIndex.update(user);
         
         return ResponseEntity.ok(new ApiResponse(true, "Profile updated successfully"));
     }
 
-    @PutMapping("/me/availability")
+    @PutMapping("/users/me/availability")
     @PreAuthorize("hasRole('VOLUNTEER')")
     public ResponseEntity<?> updateAvailability(
             @CurrentUser UserPrincipal currentUser,
@@ -77,6 +99,7 @@ public class UserController {
         
         user.setAvailable(available);
         userRepository.save(user);
+        availableVolunteerIndex.update(user);
         
         String message = available ? "You are now available to help" : "You are no longer available to help";
         return ResponseEntity.ok(new ApiResponse(true, message));
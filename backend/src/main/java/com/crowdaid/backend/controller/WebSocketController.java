@@ -1,6 +1,8 @@
 package com.crowdaid.backend.controller;
 
-import com.crowdaid.backend.dto.MessageResponse;
+import com.crowdaid.backend.dto.LocationUpdate;
+import com.crowdaid.backend.geo.AvailableVolunteerIndex;
+import com.crowdaid.backend.geo.LiveLocationStore;
 import com.crowdaid.backend.security.CurrentUser;
 import com.crowdaid.backend.security.UserPrincipal;
 import org.slf4j.Logger;
@@ -13,6 +15,7 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -24,44 +27,16 @@ public class WebSocketController {
     private static final Logger logger = LoggerFactory.getLogger(WebSocketController.class);
 
     private final SimpMessageSendingOperations messagingTemplate;
+    private final LiveLocationStore liveLocationStore;
+    private final AvailableVolunteerIndex availableVolunteerIndex;
 
     @Autowired
-    public WebSocketController(SimpMessageSendingOperations messagingTemplate) {
+    public WebSocketController(SimpMessageSendingOperations messagingTemplate,
+                               LiveLocationStore liveLocationStore,
+                               AvailableVolunteerIndex availableVolunteerIndex) {
         this.messagingTemplate = messagingTemplate;
-    }
-
-    /**
-     * Handle incoming chat messages
-     */
-    @MessageMapping("/chat/{helpRequestId}/send")
-    public void sendMessage(
-            @DestinationVariable Long helpRequestId,
-            @Payload MessageResponse message,
-            Principal principal) {
-        
-        if (principal == null) {
-            logger.warn("Unauthorized message attempt");
-            return;
-        }
-
-        logger.info("Received message for help request {}: {}", helpRequestId, message);
-        
-        // The actual message is already saved via the REST API, we just need to forward it
-        // to the other participant(s)
-        String destination = "/topic/chat/" + helpRequestId;
-        messagingTemplate.convertAndSend(destination, message);
-        
-        // Also send a notification to the recipient's private queue if they're online
-        Long recipientId = message.getSender().getId().equals(principal.getName()) ? 
-                message.getRecipientId() : Long.parseLong(principal.getName());
-        
-        if (recipientId != null) {
-            String notificationDestination = "/queue/messages/" + recipientId;
-            messagingTemplate.convertAndSendToUser(
-                    recipientId.toString(), 
-                    notificationDestination, 
-                    message);
-        }
+        this.liveLocationStore = liveLocationStore;
+        this.availableVolunteerIndex = availableVolunteerIndex;
     }
 
     /**
@@ -140,4 +115,32 @@ public class WebSocketController {
         String destination = "/topic/request/" + helpRequestId + "/status";
         messagingTemplate.convertAndSend(destination, status);
     }
+
+    /**
+     * Handle streamed volunteer locations. Reports only touch memory; they reach the database
+     * through the periodic batch flush of the live location store.
+     */
+    @MessageMapping("/location")
+    public void updateLocation(@Payload LocationUpdate update, Principal principal) {
+        if (!(principal instanceof Authentication) ||
+                !(((Authentication) principal).getPrincipal() instanceof UserPrincipal)) {
+            return;
+        }
+        UserPrincipal user = (UserPrincipal) ((Authentication) principal).getPrincipal();
+        boolean isVolunteer = user.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_VOLUNTEER".equals(authority.getAuthority()));
+        if (!isVolunteer || !isValid(update)) {
+            logger.warn("Rejected location update from user {}", user.getId());
+            return;
+        }
+
+        liveLocationStore.record(user.getId(), update.getLatitude(), update.getLongitude());
+        availableVolunteerIndex.moveIfIndexed(user.getId(), update.getLatitude(), update.getLongitude());
+    }
+
+    // Helper method to check that a reported position is a real coordinate
+    private boolean isValid(LocationUpdate update) {
+        return update != null && update.getLatitude() != null && update.getLongitude() != null
+                && Math.abs(update.getLatitude()) <= 90 && Math.abs(update.getLongitude()) <= 180;
+    }
 }
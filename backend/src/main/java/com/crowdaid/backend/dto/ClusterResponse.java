@@ -0,0 +1,76 @@
+package com.crowdaid.backend.dto;
+
+import java.util.List;
+
+public class ClusterResponse {
+    private double cellSizeDegrees;
+    private List<Cluster> clusters;
+
+    public ClusterResponse(double cellSizeDegrees, List<Cluster> clusters) {
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.clusters = clusters;
+    }
+
+    // Getters and Setters
+    public double getCellSizeDegrees() {
+        return cellSizeDegrees;
+    }
+
+    public void setCellSizeDegrees(double cellSizeDegrees) {
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    public List<Cluster> getClusters() {
+        return clusters;
+    }
+
+    public void setClusters(List<Cluster> clusters) {
+        this.clusters = clusters;
+    }
+
+    public static class Cluster {
+        private double latitude;
+        private double longitude;
+        private long count;
+        private long pendingCount;
+
+        public Cluster(double latitude, double longitude, long count, long pendingCount) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.count = count;
+            this.pendingCount = pendingCount;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public void setLatitude(double latitude) {
+            this.latitude = latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public void setLongitude(double longitude) {
+            this.longitude = longitude;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getPendingCount() {
+            return pendingCount;
+        }
+
+        public void setPendingCount(long pendingCount) {
+            this.pendingCount = pendingCount;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.crowdaid.backend.dto;
+
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.repository.projection.InboxEntry;
+
+import java.time.Instant;
+
+public class ConversationSummary {
+    private Long helpRequestId;
+    private String description;
+    private HelpRequest.Status status;
+    private Long lastMessageId;
+    private Long lastMessageSenderId;
+    private String lastMessagePreview;
+    private Instant lastMessageAt;
+    private long unreadCount;
+
+    public ConversationSummary(InboxEntry entry) {
+        this.helpRequestId = entry.getHelpRequestId();
+        this.description = entry.getDescription();
+        this.status = entry.getStatus();
+        this.lastMessageId = entry.getLastMessageId();
+        this.lastMessageSenderId = entry.getLastMessageSenderId();
+        this.lastMessagePreview = entry.getLastMessagePreview();
+        this.lastMessageAt = entry.getLastMessageAt();
+        this.unreadCount = entry.getUnreadCount() != null ? entry.getUnreadCount() : 0;
+    }
+
+    // Getters and Setters
+    public Long getHelpRequestId() {
+        return helpRequestId;
+    }
+
+    public void setHelpRequestId(Long helpRequestId) {
+        this.helpRequestId = helpRequestId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public HelpRequest.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(HelpRequest.Status status) {
+        this.status = status;
+    }
+
+    public Long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(Long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public Long getLastMessageSenderId() {
+        return lastMessageSenderId;
+    }
+
+    public void setLastMessageSenderId(Long lastMessageSenderId) {
+        this.lastMessageSenderId = lastMessageSenderId;
+    }
+
+    public String getLastMessagePreview() {
+        return lastMessagePreview;
+    }
+
+    public void setLastMessagePreview(String lastMessagePreview) {
+        this.lastMessagePreview = lastMessagePreview;
+    }
+
+    public Instant getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public void setLastMessageAt(Instant lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
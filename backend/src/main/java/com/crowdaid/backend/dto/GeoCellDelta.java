@@ -0,0 +1,79 @@
+package com.crowdaid.backend.dto;
+
+import com.crowdaid.backend.model.HelpRequest;
+
+/**
+ * Change to the pending requests of a geo cell. Carries only what a map needs to place or drop
+ * the pin; volunteers load the request itself through the REST API.
+ */
+public class GeoCellDelta {
+    public enum Type {
+        ADD,
+        REMOVE
+    }
+
+    private Type type;
+    private Long helpRequestId;
+    private Double latitude;
+    private Double longitude;
+    private HelpRequest.Status status;
+
+    public GeoCellDelta(Type type, Long helpRequestId, Double latitude, Double longitude, HelpRequest.Status status) {
+        this.type = type;
+        this.helpRequestId = helpRequestId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.status = status;
+    }
+
+    public static GeoCellDelta add(HelpRequestResponse helpRequest) {
+        return new GeoCellDelta(Type.ADD, helpRequest.getId(), helpRequest.getLatitude(), helpRequest.getLongitude(),
+                helpRequest.getStatus());
+    }
+
+    public static GeoCellDelta remove(HelpRequestResponse helpRequest) {
+        return new GeoCellDelta(Type.REMOVE, helpRequest.getId(), helpRequest.getLatitude(), helpRequest.getLongitude(),
+                helpRequest.getStatus());
+    }
+
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getHelpRequestId() {
+        return helpRequestId;
+    }
+
+    public void setHelpRequestId(Long helpRequestId) {
+        this.helpRequestId = helpRequestId;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public HelpRequest.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(HelpRequest.Status status) {
+        this.status = status;
+    }
+}
@@ -16,6 +16,7 @@ public class HelpRequestResponse {
     private HelpRequest.Status status;
     private Instant createdAt;
     private Instant updatedAt;
+    private Double distanceKm;
 
     public HelpRequestResponse(HelpRequest helpRequest) {
         this.id = helpRequest.getId();
@@ -32,6 +33,29 @@ public class HelpRequestResponse {
         this.updatedAt = helpRequest.getUpdatedAt();
     }
 
+    private HelpRequestResponse(HelpRequestResponse other) {
+        this.id = other.id;
+        this.description = other.description;
+        this.requester = other.requester;
+        this.volunteer = other.volunteer;
+        this.address = other.address;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.status = other.status;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
+    /**
+     * Copy of this response annotated with its distance from a search point, so shared
+     * instances held by the in-memory index are never mutated.
+     */
+    public HelpRequestResponse withDistance(double distanceKm) {
+        HelpRequestResponse copy = new HelpRequestResponse(this);
+        copy.distanceKm = distanceKm;
+        return copy;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -112,4 +136,12 @@ public class HelpRequestResponse {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
 }
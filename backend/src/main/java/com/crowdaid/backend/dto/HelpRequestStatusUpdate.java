@@ -0,0 +1,50 @@
+package com.crowdaid.backend.dto;
+
+import com.crowdaid.backend.model.HelpRequest;
+
+import java.time.Instant;
+
+/**
+ * Status change published on {@code /topic/request/{id}}. Any authenticated user can subscribe
+ * to that topic, so it carries no participant details; participants reload the request itself.
+ */
+public class HelpRequestStatusUpdate {
+    private Long id;
+    private HelpRequest.Status status;
+    private Instant updatedAt;
+
+    public HelpRequestStatusUpdate(Long id, HelpRequest.Status status, Instant updatedAt) {
+        this.id = id;
+        this.status = status;
+        this.updatedAt = updatedAt;
+    }
+
+    public static HelpRequestStatusUpdate of(HelpRequestResponse helpRequest) {
+        return new HelpRequestStatusUpdate(helpRequest.getId(), helpRequest.getStatus(), helpRequest.getUpdatedAt());
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public HelpRequest.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(HelpRequest.Status status) {
+        this.status = status;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -13,12 +13,34 @@ public class MessageResponse {
     private boolean isRead;
 
     public MessageResponse(Message message) {
+        this(message, false);
+    }
+
+    public MessageResponse(Message message, boolean isRead) {
         this.id = message.getId();
         this.content = message.getContent();
         this.sender = new UserProfile(message.getSender());
         this.helpRequestId = message.getHelpRequest().getId();
         this.createdAt = message.getCreatedAt();
-        this.isRead = message.isRead();
+        this.isRead = isRead;
+    }
+
+    private MessageResponse(MessageResponse other) {
+        this.id = other.id;
+        this.content = other.content;
+        this.sender = other.sender;
+        this.helpRequestId = other.helpRequestId;
+        this.createdAt = other.createdAt;
+        this.isRead = other.isRead;
+    }
+
+    /**
+     * Copy with the read flag for a particular viewer, leaving shared instances untouched.
+     */
+    public MessageResponse withRead(boolean isRead) {
+        MessageResponse copy = new MessageResponse(this);
+        copy.isRead = isRead;
+        return copy;
     }
 
     // Getters and Setters
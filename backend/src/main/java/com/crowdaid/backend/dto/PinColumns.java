@@ -0,0 +1,112 @@
+package com.crowdaid.backend.dto;
+
+import com.crowdaid.backend.model.HelpRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Map pins as parallel columns. Statuses are {@link HelpRequest.Status} ordinals, listed in
+ * {@link #getStatusNames()}, and ages are seconds since creation.
+ */
+public class PinColumns {
+    private static final String[] STATUS_NAMES = statusNames();
+
+    private int count;
+    private boolean truncated;
+    private long[] ids;
+    private float[] latitudes;
+    private float[] longitudes;
+    private int[] statuses;
+    private int[] ageSeconds;
+
+    public PinColumns(int capacity) {
+        this.ids = new long[capacity];
+        this.latitudes = new float[capacity];
+        this.longitudes = new float[capacity];
+        this.statuses = new int[capacity];
+        this.ageSeconds = new int[capacity];
+    }
+
+    public void add(long id, double latitude, double longitude, HelpRequest.Status status, int age) {
+        ids[count] = id;
+        latitudes[count] = (float) latitude;
+        longitudes[count] = (float) longitude;
+        statuses[count] = status.ordinal();
+        ageSeconds[count] = age;
+        count++;
+    }
+
+    /**
+     * Little-endian packed form: int32 count, uint8 truncated flag, then the columns in order
+     * as int64 ids, float32 latitudes, float32 longitudes, uint8 statuses and int32 ages.
+     */
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + count * (8 + 4 + 4 + 1 + 4)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(count);
+        buffer.put((byte) (truncated ? 1 : 0));
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(ids[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putFloat(latitudes[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putFloat(longitudes[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.put((byte) statuses[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(ageSeconds[i]);
+        }
+        return buffer.array();
+    }
+
+    private static String[] statusNames() {
+        HelpRequest.Status[] values = HelpRequest.Status.values();
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        return names;
+    }
+
+    // Getters and Setters
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public String[] getStatusNames() {
+        return STATUS_NAMES;
+    }
+
+    public long[] getIds() {
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    public float[] getLatitudes() {
+        return count == latitudes.length ? latitudes : Arrays.copyOf(latitudes, count);
+    }
+
+    public float[] getLongitudes() {
+        return count == longitudes.length ? longitudes : Arrays.copyOf(longitudes, count);
+    }
+
+    public int[] getStatuses() {
+        return count == statuses.length ? statuses : Arrays.copyOf(statuses, count);
+    }
+
+    public int[] getAgeSeconds() {
+        return count == ageSeconds.length ? ageSeconds : Arrays.copyOf(ageSeconds, count);
+    }
+}
@@ -0,0 +1,17 @@
+package com.crowdaid.backend.dto;
+
+public class UserIdentityAvailability {
+    private Boolean available;
+
+    public UserIdentityAvailability(Boolean available) {
+        this.available = available;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+}
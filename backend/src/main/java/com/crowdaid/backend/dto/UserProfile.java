@@ -1,5 +1,7 @@
 package com.crowdaid.backend.dto;
 
+import com.crowdaid.backend.model.User;
+
 public class UserProfile {
     private Long id;
     private String username;
@@ -28,6 +30,11 @@ public class UserProfile {
         this.isAvailable = isAvailable;
     }
 
+    public UserProfile(User user) {
+        this(user.getId(), user.getUsername(), user.getName(), user.getEmail(), user.getPhoneNumber(),
+                user.getAddress(), user.getLatitude(), user.getLongitude(), user.isAvailable());
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -0,0 +1,28 @@
+package com.crowdaid.backend.dto;
+
+public class VolunteerOffer {
+    private HelpRequestResponse helpRequest;
+    private Double distanceKm;
+
+    public VolunteerOffer(HelpRequestResponse helpRequest, Double distanceKm) {
+        this.helpRequest = helpRequest;
+        this.distanceKm = distanceKm;
+    }
+
+    // Getters and Setters
+    public HelpRequestResponse getHelpRequest() {
+        return helpRequest;
+    }
+
+    public void setHelpRequest(HelpRequestResponse helpRequest) {
+        this.helpRequest = helpRequest;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
@@ -0,0 +1,58 @@
+package com.crowdaid.backend.event;
+
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.model.HelpRequest;
+
+/**
+ * Published by the help request service whenever a request is created, changes status or is
+ * deleted. Listeners that maintain in-memory state should consume it after commit.
+ */
+public class HelpRequestChangedEvent {
+
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED,
+        DELETED
+    }
+
+    private final Type type;
+    private final HelpRequestResponse helpRequest;
+    private final HelpRequest.Status previousStatus;
+
+    public HelpRequestChangedEvent(Type type, HelpRequestResponse helpRequest, HelpRequest.Status previousStatus) {
+        this.type = type;
+        this.helpRequest = helpRequest;
+        this.previousStatus = previousStatus;
+    }
+
+    public static HelpRequestChangedEvent created(HelpRequestResponse helpRequest) {
+        return new HelpRequestChangedEvent(Type.CREATED, helpRequest, null);
+    }
+
+    public static HelpRequestChangedEvent statusChanged(HelpRequestResponse helpRequest, HelpRequest.Status previousStatus) {
+        return new HelpRequestChangedEvent(Type.STATUS_CHANGED, helpRequest, previousStatus);
+    }
+
+    public static HelpRequestChangedEvent deleted(HelpRequestResponse helpRequest) {
+        return new HelpRequestChangedEvent(Type.DELETED, helpRequest, helpRequest.getStatus());
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public HelpRequestResponse getHelpRequest() {
+        return helpRequest;
+    }
+
+    public HelpRequest.Status getPreviousStatus() {
+        return previousStatus;
+    }
+
+    /**
+     * Whether the request is still PENDING after this change, i.e. open for volunteers.
+     */
+    public boolean isPendingAfter() {
+        return type != Type.DELETED && helpRequest.getStatus() == HelpRequest.Status.PENDING;
+    }
+}
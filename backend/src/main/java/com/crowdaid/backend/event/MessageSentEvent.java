@@ -0,0 +1,20 @@
+package com.crowdaid.backend.event;
+
+import com.crowdaid.backend.dto.MessageResponse;
+
+/**
+ * Published in the transaction that stores a chat message, by both the direct and the
+ * group-commit write paths. Listeners that keep messages in memory should consume it after commit.
+ */
+public class MessageSentEvent {
+
+    private final MessageResponse message;
+
+    public MessageSentEvent(MessageResponse message) {
+        this.message = message;
+    }
+
+    public MessageResponse getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,18 @@
+package com.crowdaid.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class HelpRequestAlreadyTakenException extends RuntimeException {
+    private Long helpRequestId;
+
+    public HelpRequestAlreadyTakenException(Long helpRequestId) {
+        super(String.format("Help request %s is no longer available", helpRequestId));
+        this.helpRequestId = helpRequestId;
+    }
+
+    public Long getHelpRequestId() {
+        return helpRequestId;
+    }
+}
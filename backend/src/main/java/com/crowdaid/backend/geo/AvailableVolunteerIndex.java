@@ -0,0 +1,77 @@
+package com.crowdaid.backend.geo;
+
+import com.crowdaid.backend.model.RoleName;
+import com.crowdaid.backend.model.User;
+import com.crowdaid.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Resident index of volunteers who are available and have a known location, used to match new
+ * help requests without scanning the users table. Kept current by the availability and profile
+ * endpoints.
+ */
+@Component
+public class AvailableVolunteerIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailableVolunteerIndex.class);
+
+    private final UserRepository userRepository;
+    private final LiveLocationStore liveLocationStore;
+    private final GridIndex<Long> index;
+
+    public AvailableVolunteerIndex(UserRepository userRepository, LiveLocationStore liveLocationStore,
+                                   @Value("${app.geo.cell-size-degrees:0.05}") double cellSizeDegrees) {
+        this.userRepository = userRepository;
+        this.liveLocationStore = liveLocationStore;
+        this.index = new GridIndex<>(new GeoGrid(cellSizeDegrees));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        userRepository.findByRoles_NameAndIsAvailableTrue(RoleName.ROLE_VOLUNTEER).forEach(this::update);
+        logger.info("Available volunteer index loaded with {} volunteers", index.size());
+    }
+
+    /**
+     * Re-indexes the user after a change to availability, roles or location. A streamed live
+     * location takes precedence over the stored one, which may not have been flushed yet.
+     */
+    public void update(User user) {
+        if (!user.isAvailable() || !user.getRoles().contains(RoleName.ROLE_VOLUNTEER)) {
+            index.remove(user.getId());
+            return;
+        }
+
+        LiveLocationStore.Position live = liveLocationStore.get(user.getId());
+        if (live != null) {
+            index.put(user.getId(), live.getLatitude(), live.getLongitude(), user.getId());
+        } else if (user.getLatitude() != null && user.getLongitude() != null) {
+            index.put(user.getId(), user.getLatitude(), user.getLongitude(), user.getId());
+        } else {
+            index.remove(user.getId());
+        }
+    }
+
+    /**
+     * Moves a volunteer who is already indexed; reports from unavailable users are ignored.
+     */
+    public void moveIfIndexed(long userId, double lat, double lng) {
+        index.moveIfPresent(userId, lat, lng, userId);
+    }
+
+    /**
+     * Volunteers within the radius, nearest first.
+     */
+    public List<GridIndex.Neighbor<Long>> nearest(double lat, double lng, double radiusKm, int limit) {
+        return index.nearest(lat, lng, radiusKm, -1, Long.MIN_VALUE, limit);
+    }
+}
@@ -0,0 +1,203 @@
+package com.crowdaid.backend.geo;
+
+import com.crowdaid.backend.dto.ClusterResponse;
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.event.HelpRequestChangedEvent;
+import com.crowdaid.backend.exception.AppException;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.repository.HelpRequestRepository;
+import com.crowdaid.backend.repository.projection.HelpRequestPin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-cell counts and coordinate sums of open help requests at a few fixed grid resolutions.
+ * The aggregates are loaded once at startup and then adjusted by committed
+ * {@link HelpRequestChangedEvent}s, so a viewport query only reads the cells it covers.
+ * <p>
+ * Each open request's current contribution is remembered, and an event replaces it with the
+ * request's new state instead of adding a delta. Applying an event the snapshot already reflects
+ * therefore changes nothing, which lets events received during the startup load be replayed
+ * on top of the snapshot without counting a change twice.
+ */
+@Component
+public class ClusterGrid {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterGrid.class);
+
+    // Cell sizes in degrees, finest first; each one divides 180 evenly
+    private static final double[] LEVELS = {0.01, 0.05, 0.2, 1.0, 5.0, 20.0};
+
+    // Roughly one cluster per 64px of a 256px map tile
+    private static final int CELLS_PER_TILE = 4;
+
+    // Upper bound on clusters returned for a single viewport
+    private static final int MAX_CELLS_PER_VIEWPORT = 1024;
+
+    private final HelpRequestRepository helpRequestRepository;
+    private final GeoGrid[] grids = new GeoGrid[LEVELS.length];
+    private final List<Map<Long, Aggregate>> levels = new ArrayList<>(LEVELS.length);
+    // Contribution of every open request currently counted; guarded by this
+    private final Map<Long, Member> members = new HashMap<>();
+    // Events received during warm-up, replayed once the snapshot is installed; guarded by this
+    private List<HelpRequestChangedEvent> deferred;
+
+    public ClusterGrid(HelpRequestRepository helpRequestRepository) {
+        this.helpRequestRepository = helpRequestRepository;
+        for (int i = 0; i < LEVELS.length; i++) {
+            grids[i] = new GeoGrid(LEVELS[i]);
+            levels.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        synchronized (this) {
+            deferred = new ArrayList<>();
+        }
+        List<HelpRequestPin> pins = helpRequestRepository.findPinsByStatusIn(HelpRequest.OPEN_STATUSES);
+        synchronized (this) {
+            levels.forEach(Map::clear);
+            members.clear();
+            for (HelpRequestPin pin : pins) {
+                update(pin.getId(), new Member(pin.getLatitude(), pin.getLongitude(),
+                        pin.getStatus() == HelpRequest.Status.PENDING));
+            }
+            deferred.forEach(this::apply);
+            deferred = null;
+        }
+        logger.info("Cluster grid loaded with {} open requests", pins.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onHelpRequestChanged(HelpRequestChangedEvent event) {
+        if (deferred != null) {
+            deferred.add(event);
+        } else {
+            apply(event);
+        }
+    }
+
+    /**
+     * Clusters for a viewport. The grid level follows the map zoom and is coarsened further
+     * until the viewport spans at most {@value #MAX_CELLS_PER_VIEWPORT} cells. A box with
+     * minLng greater than maxLng crosses the antimeridian.
+     */
+    public ClusterResponse clusters(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        if (minLat > maxLat || Math.abs(minLat) > 90 || Math.abs(maxLat) > 90
+                || Math.abs(minLng) > 180 || Math.abs(maxLng) > 180) {
+            throw new AppException("Invalid bounding box");
+        }
+        double eastLng = maxLng < minLng ? maxLng + 360 : maxLng;
+
+        int level = levelForZoom(zoom);
+        while (level < LEVELS.length - 1 && cellCount(grids[level], minLat, maxLat, minLng, eastLng) > MAX_CELLS_PER_VIEWPORT) {
+            level++;
+        }
+
+        Map<Long, Aggregate> aggregates = levels.get(level);
+        List<ClusterResponse.Cluster> clusters = new ArrayList<>();
+        grids[level].forEachCell(minLat, maxLat, minLng, eastLng, cellKey -> {
+            Aggregate aggregate = aggregates.get(cellKey);
+            if (aggregate != null) {
+                clusters.add(new ClusterResponse.Cluster(aggregate.sumLat / aggregate.count,
+                        aggregate.sumLng / aggregate.count, aggregate.count, aggregate.pending));
+            }
+        });
+        return new ClusterResponse(LEVELS[level], clusters);
+    }
+
+    // Helper method to set a request's contribution to its state after the event
+    private void apply(HelpRequestChangedEvent event) {
+        HelpRequestResponse helpRequest = event.getHelpRequest();
+        HelpRequest.Status after = event.getType() == HelpRequestChangedEvent.Type.DELETED
+                ? null : helpRequest.getStatus();
+        Member member = HelpRequest.OPEN_STATUSES.contains(after)
+                ? new Member(helpRequest.getLatitude(), helpRequest.getLongitude(), after == HelpRequest.Status.PENDING)
+                : null;
+        update(helpRequest.getId(), member);
+    }
+
+    // Helper method to replace the counted contribution of a request (null removes it)
+    private void update(Long id, Member member) {
+        Member current = member != null ? members.put(id, member) : members.remove(id);
+        if (current != null) {
+            add(current, -1);
+        }
+        if (member != null) {
+            add(member, 1);
+        }
+    }
+
+    // Helper method to add (delta 1) or remove (delta -1) a request from every level
+    private void add(Member member, int delta) {
+        double lat = member.lat;
+        double lng = member.lng;
+        for (int i = 0; i < LEVELS.length; i++) {
+            levels.get(i).compute(grids[i].cellKey(lat, lng), (key, current) -> {
+                Aggregate base = current != null ? current : Aggregate.EMPTY;
+                Aggregate updated = new Aggregate(base.count + delta, base.pending + (member.pending ? delta : 0),
+                        base.sumLat + delta * lat, base.sumLng + delta * lng);
+                return updated.count > 0 ? updated : null;
+            });
+        }
+    }
+
+    // Helper method to pick the finest level whose cells are at least the target cluster size
+    private static int levelForZoom(int zoom) {
+        double target = 360.0 / Math.pow(2, Math.max(0, Math.min(zoom, 24))) / CELLS_PER_TILE;
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i] >= target) {
+                return i;
+            }
+        }
+        return LEVELS.length - 1;
+    }
+
+    private static long cellCount(GeoGrid grid, double minLat, double maxLat, double minLng, double maxLng) {
+        long rows = grid.latIndex(maxLat) - grid.latIndex(minLat) + 1L;
+        long columns = (long) Math.floor((maxLng + 180) / grid.getCellSizeDegrees())
+                - (long) Math.floor((minLng + 180) / grid.getCellSizeDegrees()) + 1L;
+        return rows * columns;
+    }
+
+    private static final class Member {
+        final double lat;
+        final double lng;
+        final boolean pending;
+
+        Member(double lat, double lng, boolean pending) {
+            this.lat = lat;
+            this.lng = lng;
+            this.pending = pending;
+        }
+    }
+
+    private static final class Aggregate {
+        static final Aggregate EMPTY = new Aggregate(0, 0, 0, 0);
+
+        final long count;
+        final long pending;
+        final double sumLat;
+        final double sumLng;
+
+        Aggregate(long count, long pending, double sumLat, double sumLng) {
+            this.count = count;
+            this.pending = pending;
+            this.sumLat = sumLat;
+            this.sumLng = sumLng;
+        }
+    }
+}
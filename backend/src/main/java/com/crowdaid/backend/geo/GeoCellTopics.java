@@ -0,0 +1,44 @@
+package com.crowdaid.backend.geo;
+
+import com.crowdaid.backend.exception.AppException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps locations to the STOMP topics that carry pending-request deltas for their grid cell.
+ * Volunteers subscribe to every topic covering their search radius instead of polling.
+ */
+@Component
+public class GeoCellTopics {
+
+    public static final String TOPIC_PREFIX = "/topic/geo/";
+
+    private static final int MAX_SUBSCRIBED_CELLS = 400;
+
+    private final GeoGrid grid;
+
+    public GeoCellTopics(@Value("${app.geo.topic-cell-size-degrees:0.1}") double cellSizeDegrees) {
+        this.grid = new GeoGrid(cellSizeDegrees);
+    }
+
+    public String topicFor(double lat, double lng) {
+        return topic(grid.cellKey(lat, lng));
+    }
+
+    public List<String> topicsCovering(double lat, double lng, double radiusKm) {
+        // Checked before enumerating, so a huge radius does not build millions of topic names first
+        if (grid.countCellsWithin(lat, lng, radiusKm) > MAX_SUBSCRIBED_CELLS) {
+            throw new AppException("Search radius is too large for a live subscription");
+        }
+        List<String> topics = new ArrayList<>();
+        grid.forEachCellWithin(lat, lng, radiusKm, cellKey -> topics.add(topic(cellKey)));
+        return topics;
+    }
+
+    private static String topic(long cellKey) {
+        return TOPIC_PREFIX + GeoGrid.latIndexOf(cellKey) + "_" + GeoGrid.lngIndexOf(cellKey);
+    }
+}
@@ -0,0 +1,113 @@
+package com.crowdaid.backend.geo;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Fixed-size lat/lng grid. A cell is identified by a single long key packing the latitude
+ * row in the high 32 bits and the longitude column in the low 32 bits.
+ */
+public class GeoGrid {
+
+    private final double cellSizeDegrees;
+    private final int latCells;
+    private final int lngCells;
+
+    public GeoGrid(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be in (0, 90] degrees: " + cellSizeDegrees);
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.latCells = (int) Math.ceil(180 / cellSizeDegrees);
+        this.lngCells = (int) Math.ceil(360 / cellSizeDegrees);
+    }
+
+    public double getCellSizeDegrees() {
+        return cellSizeDegrees;
+    }
+
+    public int getLngCells() {
+        return lngCells;
+    }
+
+    public long cellKey(double lat, double lng) {
+        return key(latIndex(lat), lngIndex(lng));
+    }
+
+    public int latIndex(double lat) {
+        int index = (int) Math.floor((lat + 90) / cellSizeDegrees);
+        return Math.max(0, Math.min(latCells - 1, index));
+    }
+
+    public int lngIndex(double lng) {
+        return Math.floorMod((int) Math.floor((lng + 180) / cellSizeDegrees), lngCells);
+    }
+
+    public static long key(int latIndex, int lngIndex) {
+        return ((long) latIndex << 32) | (lngIndex & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Key for a cell whose longitude column may lie outside the grid and needs wrapping.
+     */
+    public long wrappedKey(int latIndex, int lngIndex) {
+        return key(latIndex, Math.floorMod(lngIndex, lngCells));
+    }
+
+    public static int latIndexOf(long cellKey) {
+        return (int) (cellKey >>> 32);
+    }
+
+    public static int lngIndexOf(long cellKey) {
+        return (int) cellKey;
+    }
+
+    public double cellMinLat(long cellKey) {
+        return latIndexOf(cellKey) * cellSizeDegrees - 90;
+    }
+
+    public double cellMinLng(long cellKey) {
+        return lngIndexOf(cellKey) * cellSizeDegrees - 180;
+    }
+
+    /**
+     * Visits every cell overlapping the given box once, wrapping across the antimeridian.
+     */
+    public void forEachCell(double minLat, double maxLat, double minLng, double maxLng, LongConsumer consumer) {
+        int fromLat = latIndex(minLat);
+        int toLat = latIndex(maxLat);
+        int fromLng = (int) Math.floor((minLng + 180) / cellSizeDegrees);
+        int toLng = (int) Math.floor((maxLng + 180) / cellSizeDegrees);
+        if (toLng - fromLng >= lngCells - 1) {
+            fromLng = 0;
+            toLng = lngCells - 1;
+        }
+
+        for (int latIdx = fromLat; latIdx <= toLat; latIdx++) {
+            for (int lngIdx = fromLng; lngIdx <= toLng; lngIdx++) {
+                consumer.accept(wrappedKey(latIdx, lngIdx));
+            }
+        }
+    }
+
+    /**
+     * Number of cells {@link #forEachCell} would visit for the box, without visiting them.
+     */
+    public long countCells(double minLat, double maxLat, double minLng, double maxLng) {
+        long rows = latIndex(maxLat) - latIndex(minLat) + 1;
+        long columns = (long) Math.floor((maxLng + 180) / cellSizeDegrees) - (long) Math.floor((minLng + 180) / cellSizeDegrees) + 1;
+        return rows * Math.min(columns, lngCells);
+    }
+
+    public long countCellsWithin(double lat, double lng, double radiusKm) {
+        double[] box = GeoMath.boundingBox(lat, lng, radiusKm);
+        return countCells(box[0], box[1], box[2], box[3]);
+    }
+
+    /**
+     * Visits every cell that may hold a point within {@code radiusKm} of the given point.
+     */
+    public void forEachCellWithin(double lat, double lng, double radiusKm, LongConsumer consumer) {
+        double[] box = GeoMath.boundingBox(lat, lng, radiusKm);
+        forEachCell(box[0], box[1], box[2], box[3], consumer);
+    }
+}
@@ -0,0 +1,34 @@
+package com.crowdaid.backend.geo;
+
+/**
+ * Plain spherical-earth helpers shared by the in-memory geo indexes.
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private GeoMath() {
+    }
+
+    /**
+     * Bounding box around a point as {minLat, maxLat, minLng, maxLng}. Near the poles the
+     * longitude span degenerates, so the full longitude range is returned instead.
+     */
+    public static double[] boundingBox(double lat, double lng, double radiusKm) {
+        double latRad = Math.toRadians(lat);
+        double angularDistance = radiusKm / EARTH_RADIUS_KM;
+
+        double minLat = Math.toDegrees(latRad - angularDistance);
+        double maxLat = Math.toDegrees(latRad + angularDistance);
+        if (minLat <= -90 || maxLat >= 90) {
+            return new double[]{Math.max(minLat, -90), Math.min(maxLat, 90), -180, 180};
+        }
+
+        double ratio = Math.sin(angularDistance) / Math.cos(latRad);
+        if (ratio >= 1) {
+            return new double[]{minLat, maxLat, -180, 180};
+        }
+        double deltaLng = Math.toDegrees(Math.asin(ratio));
+        return new double[]{minLat, maxLat, lng - deltaLng, lng + deltaLng};
+    }
+}
@@ -0,0 +1,11 @@
+package com.crowdaid.backend.geo;
+
+/**
+ * How nearby candidates are fetched from the database when the in-memory index is not used.
+ */
+public enum GeoQueryStrategy {
+    /** BETWEEN on the latitude/longitude columns; portable, works on H2. */
+    BOUNDING_BOX,
+    /** MBRContains/ST_Distance_Sphere on the SPATIAL-indexed location column; MySQL 8 only. */
+    SPATIAL
+}
@@ -0,0 +1,347 @@
+package com.crowdaid.backend.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory point index bucketed by {@link GeoGrid} cell. Each cell keeps its points in
+ * parallel primitive arrays so a radius scan touches no boxed values.
+ *
+ * @param <T> payload returned for matching points
+ */
+public class GridIndex<T> {
+
+    private static final int INITIAL_CELL_CAPACITY = 8;
+
+    private final GeoGrid grid;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Long, Long> cellKeyById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GridIndex(GeoGrid grid) {
+        this.grid = grid;
+    }
+
+    public GeoGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Inserts the point or moves it if the id is already indexed.
+     */
+    public void put(long id, double lat, double lng, T value) {
+        long cellKey = grid.cellKey(lat, lng);
+        lock.writeLock().lock();
+        try {
+            Long previousKey = cellKeyById.put(id, cellKey);
+            if (previousKey != null) {
+                removeFromCell(previousKey, id);
+            }
+            cells.computeIfAbsent(cellKey, k -> new Cell()).add(id, lat, lng, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Long cellKey = cellKeyById.remove(id);
+            if (cellKey == null) {
+                return false;
+            }
+            removeFromCell(cellKey, id);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the point only if the id is already indexed, atomically with respect to remove.
+     */
+    public boolean moveIfPresent(long id, double lat, double lng, T value) {
+        long cellKey = grid.cellKey(lat, lng);
+        lock.writeLock().lock();
+        try {
+            Long previousKey = cellKeyById.get(id);
+            if (previousKey == null) {
+                return false;
+            }
+            removeFromCell(previousKey, id);
+            cellKeyById.put(id, cellKey);
+            cells.computeIfAbsent(cellKey, k -> new Cell()).add(id, lat, lng, value);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            cellKeyById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return cellKeyById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the payloads of all points within {@code radiusKm} of the given point, unordered.
+     * A radius covering more grid cells than are occupied scans the occupied cells instead, so a
+     * query never costs more than one pass over the index.
+     */
+    public List<T> findWithin(double lat, double lng, double radiusKm) {
+        HaversineKernel kernel = new HaversineKernel(lat, lng, radiusKm);
+        long boxCells = grid.countCellsWithin(lat, lng, radiusKm);
+        List<T> result = new ArrayList<>();
+        Scratch scratch = new Scratch();
+        lock.readLock().lock();
+        try {
+            if (boxCells > cells.size()) {
+                for (Cell cell : cells.values()) {
+                    filter(cell, kernel, scratch, result);
+                }
+            } else {
+                grid.forEachCellWithin(lat, lng, radiusKm, cellKey -> {
+                    Cell cell = cells.get(cellKey);
+                    if (cell != null) {
+                        filter(cell, kernel, scratch, result);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code limit} points within {@code radiusKm}, ordered by (distance, id) and
+     * strictly after the given position in that order. Cells are scanned in rings around the
+     * query cell and the scan stops once no unvisited ring can beat the current k-th hit, so
+     * the work grows with the page size rather than with the number of points in the radius.
+     * Next to a pole, where neighbouring points can be any number of columns apart, every
+     * column in the box is scanned. As in {@link #findWithin}, a box with more cells than are
+     * occupied scans the occupied cells instead.
+     *
+     * @param afterDistanceKm distance of the last hit of the previous page, or a negative value
+     * @param afterId         id of the last hit of the previous page
+     */
+    public List<Neighbor<T>> nearest(double lat, double lng, double radiusKm,
+                                     double afterDistanceKm, long afterId, int limit) {
+        HaversineKernel kernel = new HaversineKernel(lat, lng, radiusKm);
+        PriorityQueue<Neighbor<T>> best = new PriorityQueue<>(limit + 1, Neighbor.<T>order().reversed());
+        double[] box = GeoMath.boundingBox(lat, lng, radiusKm);
+        int centerLat = grid.latIndex(lat);
+        int centerLng = (int) Math.floor((lng + 180) / grid.getCellSizeDegrees());
+        int fromLat = grid.latIndex(box[0]);
+        int toLat = grid.latIndex(box[1]);
+        int fromLng = (int) Math.floor((box[2] + 180) / grid.getCellSizeDegrees());
+        int toLng = (int) Math.floor((box[3] + 180) / grid.getCellSizeDegrees());
+        if (toLng - fromLng >= grid.getLngCells() - 1) {
+            // The box wraps the whole parallel (near a pole); as in GeoGrid.forEachCell, visit each
+            // column once, here in a window centred on the query column so the rings stay contiguous
+            fromLng = centerLng - grid.getLngCells() / 2;
+            toLng = fromLng + grid.getLngCells() - 1;
+        }
+        int maxRing = Math.max(Math.max(centerLat - fromLat, toLat - centerLat),
+                Math.max(centerLng - fromLng, toLng - centerLng));
+
+        // cos of the latitude closest to a pole inside the box; 0 once the box reaches a pole,
+        // where points across the pole are close however many columns away they are
+        double cosPoleward = Math.cos(Math.toRadians(Math.max(Math.abs(box[0]), Math.abs(box[1]))));
+        long boxCells = grid.countCells(box[0], box[1], box[2], box[3]);
+
+        lock.readLock().lock();
+        try {
+            if (boxCells > cells.size()) {
+                for (Cell cell : cells.values()) {
+                    collect(cell, kernel, afterDistanceKm, afterId, limit, best);
+                }
+            } else {
+                for (int ring = 0; ring <= maxRing; ring++) {
+                    int lastLat = Math.min(centerLat + ring, toLat);
+                    for (int latIdx = Math.max(centerLat - ring, fromLat); latIdx <= lastLat; latIdx++) {
+                        boolean edgeRow = Math.abs(latIdx - centerLat) == ring;
+                        int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                        for (int lngIdx = centerLng - ring; lngIdx <= centerLng + ring; lngIdx += step) {
+                            if (lngIdx < fromLng || lngIdx > toLng) {
+                                continue;
+                            }
+                            Cell cell = cells.get(grid.wrappedKey(latIdx, lngIdx));
+                            if (cell != null) {
+                                collect(cell, kernel, afterDistanceKm, afterId, limit, best);
+                            }
+                        }
+                    }
+                    if (best.size() == limit && best.peek().distanceKm <= ringDistanceKm(ring, cosPoleward)) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Neighbor<T>> result = new ArrayList<>(best);
+        result.sort(Neighbor.order());
+        return result;
+    }
+
+    // Lower bound on the distance to any point in the rings after `ring`: such a point is at least
+    // `ring` whole cells away in latitude or in longitude. A latitude gap is at least that arc; a
+    // longitude gap between latitudes no closer to a pole than the box's is at least the haversine
+    // of the gap with both cosines replaced by cosPoleward.
+    private double ringDistanceKm(int ring, double cosPoleward) {
+        double gap = Math.toRadians(ring * grid.getCellSizeDegrees());
+        double lngBound = 2 * Math.asin(Math.min(1, cosPoleward * Math.sin(Math.min(Math.PI, gap) / 2)));
+        return Math.min(gap, lngBound) * GeoMath.EARTH_RADIUS_KM;
+    }
+
+    private void filter(Cell cell, HaversineKernel kernel, Scratch scratch, List<T> result) {
+        scratch.ensureCapacity(cell.size);
+        int hits = kernel.filter(cell.lats, cell.lngs, cell.cosLats, cell.size,
+                scratch.hitIndex, scratch.hitDistanceKm);
+        for (int h = 0; h < hits; h++) {
+            result.add(cell.value(scratch.hitIndex[h]));
+        }
+    }
+
+    private void collect(Cell cell, HaversineKernel kernel, double afterDistanceKm, long afterId,
+                         int limit, PriorityQueue<Neighbor<T>> best) {
+        for (int i = 0; i < cell.size; i++) {
+            double distance = kernel.distanceWithin(cell.lats[i], cell.lngs[i], cell.cosLats[i]);
+            if (distance < 0) {
+                continue;
+            }
+            long id = cell.ids[i];
+            if (distance < afterDistanceKm || (distance == afterDistanceKm && id <= afterId)) {
+                continue;
+            }
+            if (best.size() == limit) {
+                Neighbor<T> worst = best.peek();
+                if (distance > worst.distanceKm || (distance == worst.distanceKm && id > worst.id)) {
+                    continue;
+                }
+                best.poll();
+            }
+            best.add(new Neighbor<>(id, distance, cell.value(i)));
+        }
+    }
+
+    private void removeFromCell(long cellKey, long id) {
+        Cell cell = cells.get(cellKey);
+        cell.remove(id);
+        if (cell.size == 0) {
+            cells.remove(cellKey);
+        }
+    }
+
+    private final class Cell {
+        private long[] ids = new long[INITIAL_CELL_CAPACITY];
+        private double[] lats = new double[INITIAL_CELL_CAPACITY];
+        private double[] lngs = new double[INITIAL_CELL_CAPACITY];
+        private double[] cosLats = new double[INITIAL_CELL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CELL_CAPACITY];
+        private int size;
+
+        void add(long id, double lat, double lng, T value) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                lats = Arrays.copyOf(lats, capacity);
+                lngs = Arrays.copyOf(lngs, capacity);
+                cosLats = Arrays.copyOf(cosLats, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            ids[size] = id;
+            lats[size] = lat;
+            lngs[size] = lng;
+            cosLats[size] = Math.cos(Math.toRadians(lat));
+            values[size] = value;
+            size++;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    // Swap the last slot into the hole to keep the arrays dense
+                    int last = --size;
+                    ids[i] = ids[last];
+                    lats[i] = lats[last];
+                    lngs[i] = lngs[last];
+                    cosLats[i] = cosLats[last];
+                    values[i] = values[last];
+                    values[last] = null;
+                    return;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        T value(int i) {
+            return (T) values[i];
+        }
+    }
+
+    // Per-query output buffers for the kernel, grown to the largest cell visited
+    private static final class Scratch {
+        private int[] hitIndex = new int[INITIAL_CELL_CAPACITY];
+        private double[] hitDistanceKm = new double[INITIAL_CELL_CAPACITY];
+
+        void ensureCapacity(int size) {
+            if (hitIndex.length < size) {
+                hitIndex = new int[size];
+                hitDistanceKm = new double[size];
+            }
+        }
+    }
+
+    /**
+     * A point returned by {@link #nearest} together with its distance from the query point.
+     */
+    public static final class Neighbor<T> {
+        private final long id;
+        private final double distanceKm;
+        private final T value;
+
+        Neighbor(long id, double distanceKm, T value) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+            this.value = value;
+        }
+
+        static <T> Comparator<Neighbor<T>> order() {
+            return Comparator.<Neighbor<T>>comparingDouble(n -> n.distanceKm).thenComparingLong(n -> n.id);
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.crowdaid.backend.geo;
+
+/**
+ * Radius filter for one query point over primitive coordinate columns.
+ * <p>
+ * Everything that depends only on the query (radians, cos(lat), angular radius and the haversine
+ * threshold) is computed once in the constructor. Each candidate then goes through three stages:
+ * an exact latitude-band test, an equirectangular estimate with a safety margin, and finally the
+ * haversine term compared against a precomputed threshold, so asin/sqrt are only evaluated for
+ * actual hits. Nothing is allocated per candidate.
+ */
+public final class HaversineKernel {
+
+    // The equirectangular estimate is only trusted as a pre-filter while every hit is within
+    // 0.1 rad of longitude of the query (radius below ~600km at the equator, shrinking with
+    // cos(lat)); further towards the poles it overstates distances by more than the slack
+    private static final double MAX_EQUIRECT_ANGLE = 0.1;
+    private static final double EQUIRECT_SLACK = 1.1;
+
+    private final double latRad;
+    private final double lngRad;
+    private final double cosLat;
+    private final double angularRadius;
+    private final double equirectLimitSq;
+    private final double haversineLimit;
+
+    public HaversineKernel(double lat, double lng, double radiusKm) {
+        this.latRad = Math.toRadians(lat);
+        this.lngRad = Math.toRadians(lng);
+        this.cosLat = Math.cos(latRad);
+        this.angularRadius = Math.min(Math.PI, radiusKm / GeoMath.EARTH_RADIUS_KM);
+        double slackAngle = angularRadius * EQUIRECT_SLACK;
+        this.equirectLimitSq = angularRadius <= MAX_EQUIRECT_ANGLE * cosLat ? slackAngle * slackAngle : Double.POSITIVE_INFINITY;
+        double sinHalf = Math.sin(angularRadius / 2);
+        this.haversineLimit = sinHalf * sinHalf;
+    }
+
+    /**
+     * Distance in km to the candidate if it lies within the radius, otherwise -1.
+     *
+     * @param cosLat2 cos of the candidate latitude, usually precomputed alongside the column
+     */
+    public double distanceWithin(double lat2, double lng2, double cosLat2) {
+        double dLat = Math.toRadians(lat2) - latRad;
+        if (dLat > angularRadius || -dLat > angularRadius) {
+            return -1;
+        }
+
+        double dLng = Math.toRadians(lng2) - lngRad;
+        if (dLng > Math.PI) {
+            dLng -= 2 * Math.PI;
+        } else if (dLng < -Math.PI) {
+            dLng += 2 * Math.PI;
+        }
+
+        double x = dLng * 0.5 * (cosLat + cosLat2);
+        if (x * x + dLat * dLat > equirectLimitSq) {
+            return -1;
+        }
+
+        double sinLat = Math.sin(dLat / 2);
+        double sinLng = Math.sin(dLng / 2);
+        double a = sinLat * sinLat + cosLat * cosLat2 * sinLng * sinLng;
+        if (a > haversineLimit) {
+            return -1;
+        }
+        return 2 * GeoMath.EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    public double distanceWithin(double lat2, double lng2) {
+        return distanceWithin(lat2, lng2, Math.cos(Math.toRadians(lat2)));
+    }
+
+    public boolean contains(double lat2, double lng2) {
+        return distanceWithin(lat2, lng2) >= 0;
+    }
+
+    /**
+     * Filters the first {@code size} entries of the coordinate columns, writing the index and
+     * distance of every hit into the caller-owned output arrays (which must hold {@code size}
+     * entries).
+     *
+     * @return the number of hits written
+     */
+    public int filter(double[] lats, double[] lngs, double[] cosLats, int size,
+                      int[] hitIndex, double[] hitDistanceKm) {
+        int hits = 0;
+        for (int i = 0; i < size; i++) {
+            double distance = distanceWithin(lats[i], lngs[i], cosLats[i]);
+            if (distance >= 0) {
+                hitIndex[hits] = i;
+                hitDistanceKm[hits] = distance;
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
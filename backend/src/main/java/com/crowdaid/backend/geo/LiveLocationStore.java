@@ -0,0 +1,129 @@
+package com.crowdaid.backend.geo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last known position of users who stream their location. Reports only replace the entry for
+ * the user, so any number of reports between two flushes costs a single row update. Dirty
+ * positions are written to the users table in JDBC batches on a fixed delay.
+ * <p>
+ * Once a position has been written the users table is authoritative again, so it is dropped
+ * from memory. Reads and reports go straight to a {@link ConcurrentHashMap} and take no lock.
+ * At most {@code app.location.max-entries} users are held between two flushes; a report from
+ * another user past that is dropped and counted, and the users table keeps their previous
+ * position until they report again after the next flush.
+ */
+@Component
+public class LiveLocationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveLocationStore.class);
+
+    private static final String UPDATE_SQL = "UPDATE users SET latitude = ?, longitude = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int maxEntries;
+    private final Map<Long, Position> dirty = new ConcurrentHashMap<>();
+    private final Counter dropped;
+
+    public LiveLocationStore(JdbcTemplate jdbcTemplate,
+                             @Value("${app.location.flush-batch-size:500}") int batchSize,
+                             @Value("${app.location.max-entries:100000}") int maxEntries,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxEntries = maxEntries;
+        this.dropped = Counter.builder("location.reports.dropped").register(meterRegistry);
+        Gauge.builder("location.pending", dirty, Map::size).register(meterRegistry);
+    }
+
+    public void record(long userId, double latitude, double longitude) {
+        Position position = new Position(latitude, longitude, System.currentTimeMillis());
+        // The size check races with other reporters, so the map can overshoot by a few entries
+        if (dirty.size() >= maxEntries && !dirty.containsKey(userId)) {
+            dropped.increment();
+            return;
+        }
+        dirty.put(userId, position);
+    }
+
+    /**
+     * Most recent reported position that has not been written to the users table yet, or null.
+     */
+    public Position get(long userId) {
+        return dirty.get(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.location.flush-interval-ms:5000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Position>> pending = new ArrayList<>(dirty.size());
+        for (Map.Entry<Long, Position> entry : dirty.entrySet()) {
+            pending.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, pending, batchSize, (statement, entry) -> {
+                statement.setDouble(1, entry.getValue().getLatitude());
+                statement.setDouble(2, entry.getValue().getLongitude());
+                statement.setLong(3, entry.getKey());
+            });
+        } catch (RuntimeException e) {
+            // Keep the entries dirty so the next run retries them
+            logger.error("Failed to flush {} live locations", pending.size(), e);
+            return;
+        }
+
+        // Only clear entries that were not overwritten while the batch was running
+        for (Map.Entry<Long, Position> entry : pending) {
+            dirty.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public static final class Position {
+        private final double latitude;
+        private final double longitude;
+        private final long reportedAt;
+
+        Position(double latitude, double longitude, long reportedAt) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.reportedAt = reportedAt;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public long getReportedAt() {
+            return reportedAt;
+        }
+    }
+}
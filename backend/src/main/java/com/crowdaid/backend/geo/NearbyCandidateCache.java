@@ -0,0 +1,127 @@
+package com.crowdaid.backend.geo;
+
+import com.crowdaid.backend.cache.BoundedCache;
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.event.HelpRequestChangedEvent;
+import com.crowdaid.backend.model.HelpRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caches pending-request candidates for nearby searches that go to the database. Queries are
+ * quantized to (grid cell, radius bucket); an entry holds every pending request within the
+ * bucket radius of any point in the cell, so callers only run the exact distance filter.
+ * Entries are invalidated when a request inside their region enters or leaves PENDING.
+ */
+@Component
+public class NearbyCandidateCache {
+
+    private static final double[] RADIUS_BUCKETS_KM = {1, 2, 5, 10, 25, 50};
+    private static final double KM_PER_DEGREE = Math.toRadians(GeoMath.EARTH_RADIUS_KM);
+
+    private final GeoGrid grid;
+    private final BoundedCache<Key, List<HelpRequestResponse>> cache;
+    private final boolean enabled;
+    // Bumped on every invalidation so a load racing with a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public NearbyCandidateCache(@Value("${app.geo.cell-size-degrees:0.05}") double cellSizeDegrees,
+                                @Value("${app.geo.nearby-cache.max-entries:10000}") int maxEntries,
+                                @Value("${app.geo.nearby-cache.enabled:true}") boolean enabled,
+                                MeterRegistry meterRegistry) {
+        this.grid = new GeoGrid(cellSizeDegrees);
+        this.cache = new BoundedCache<>("nearby-candidates", maxEntries);
+        this.enabled = enabled;
+        cache.bindTo(meterRegistry);
+    }
+
+    /**
+     * Whether searches with this radius go through the cache; larger radii are not quantized.
+     */
+    public boolean isCacheable(double radiusKm) {
+        return enabled && bucketFor(radiusKm) >= 0;
+    }
+
+    /**
+     * Returns the cached candidates for a cacheable query, loading them with {@code loader} on a
+     * miss. The loader receives the {minLat, maxLat, minLng, maxLng} box to fetch.
+     */
+    public List<HelpRequestResponse> getCandidates(double lat, double lng, double radiusKm,
+                                                   Function<double[], List<HelpRequestResponse>> loader) {
+        int bucket = bucketFor(radiusKm);
+        Key key = new Key(grid.cellKey(lat, lng), bucket);
+        List<HelpRequestResponse> candidates = cache.get(key);
+        if (candidates != null) {
+            return candidates;
+        }
+
+        long loadGeneration = generation.get();
+        candidates = List.copyOf(loader.apply(region(key)));
+        if (generation.get() == loadGeneration) {
+            cache.put(key, candidates);
+        }
+        return candidates;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHelpRequestChanged(HelpRequestChangedEvent event) {
+        boolean wasPending = event.getPreviousStatus() == HelpRequest.Status.PENDING;
+        if (!enabled || wasPending == event.isPendingAfter()) {
+            return;
+        }
+        generation.incrementAndGet();
+
+        double lat = event.getHelpRequest().getLatitude();
+        double lng = event.getHelpRequest().getLongitude();
+        for (int bucket = 0; bucket < RADIUS_BUCKETS_KM.length; bucket++) {
+            int b = bucket;
+            double radiusKm = RADIUS_BUCKETS_KM[bucket];
+            // Every cell whose region() can contain the point; the poleward bound covers the
+            // farthest edge of any such cell
+            double poleward = Math.abs(lat) + radiusKm / KM_PER_DEGREE + grid.getCellSizeDegrees();
+            double[] box = expand(lat, lat, lng, lng, radiusKm, poleward);
+            grid.forEachCell(box[0], box[1], box[2], box[3], cellKey -> cache.remove(new Key(cellKey, b)));
+        }
+    }
+
+    private static int bucketFor(double radiusKm) {
+        for (int i = 0; i < RADIUS_BUCKETS_KM.length; i++) {
+            if (radiusKm <= RADIUS_BUCKETS_KM[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Box holding every point within the bucket radius of any point in the key's cell
+    private double[] region(Key key) {
+        double minLat = grid.cellMinLat(key.cellKey);
+        double minLng = grid.cellMinLng(key.cellKey);
+        double size = grid.getCellSizeDegrees();
+        double poleward = Math.max(Math.abs(minLat), Math.abs(minLat + size));
+        return expand(minLat, minLat + size, minLng, minLng + size, RADIUS_BUCKETS_KM[key.bucket], poleward);
+    }
+
+    /**
+     * Grows a box by {@code radiusKm}, using the longitude spread at the given poleward latitude
+     * (the widest it can be for any point the box is grown from).
+     */
+    private static double[] expand(double minLat, double maxLat, double minLng, double maxLng,
+                                   double radiusKm, double poleward) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double dLng = GeoMath.boundingBox(Math.min(90, poleward), 0, radiusKm)[3];
+        if (dLng >= 180) {
+            return new double[]{Math.max(-90, minLat - dLat), Math.min(90, maxLat + dLat), -180, 180};
+        }
+        return new double[]{minLat - dLat, maxLat + dLat, minLng - dLng, maxLng + dLng};
+    }
+
+    private record Key(long cellKey, int bucket) {
+    }
+}
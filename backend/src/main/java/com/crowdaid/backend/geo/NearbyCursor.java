@@ -0,0 +1,53 @@
+package com.crowdaid.backend.geo;
+
+import com.crowdaid.backend.exception.AppException;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for distance-ordered nearby searches. It records the (distance, id)
+ * of the last result returned, which is a stable position because results are ordered by
+ * distance with the id as tie-breaker.
+ */
+public final class NearbyCursor {
+
+    private final double distanceKm;
+    private final long id;
+
+    public NearbyCursor(double distanceKm, long id) {
+        this.distanceKm = distanceKm;
+        this.id = id;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = Double.toString(distanceKm) + ':' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()}; returns null when no cursor was supplied.
+     */
+    public static NearbyCursor decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new NearbyCursor(Double.parseDouble(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new AppException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.crowdaid.backend.geo;
+
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.event.HelpRequestChangedEvent;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.repository.HelpRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resident index of PENDING help requests used to answer nearby searches without a database
+ * round trip. It is loaded once at startup and then kept current from committed
+ * {@link HelpRequestChangedEvent}s. Events that arrive while the startup snapshot is being read
+ * are held back and replayed on top of it, so a change committed during the load is not
+ * overwritten by the older snapshot row.
+ */
+@Component
+public class PendingRequestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingRequestIndex.class);
+
+    private final HelpRequestRepository helpRequestRepository;
+    private final GridIndex<HelpRequestResponse> index;
+    private final boolean enabled;
+    private volatile boolean ready;
+    // Events received during warm-up, replayed once the snapshot is installed; guarded by this
+    private List<HelpRequestChangedEvent> deferred;
+
+    public PendingRequestIndex(HelpRequestRepository helpRequestRepository,
+                               @Value("${app.geo.cell-size-degrees:0.05}") double cellSizeDegrees,
+                               @Value("${app.geo.pending-index.enabled:true}") boolean enabled) {
+        this.helpRequestRepository = helpRequestRepository;
+        this.index = new GridIndex<>(new GeoGrid(cellSizeDegrees));
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            deferred = new ArrayList<>();
+        }
+        List<HelpRequest> pending = helpRequestRepository.findByStatus(HelpRequest.Status.PENDING);
+        synchronized (this) {
+            for (HelpRequest helpRequest : pending) {
+                put(new HelpRequestResponse(helpRequest));
+            }
+            deferred.forEach(this::apply);
+            deferred = null;
+            ready = true;
+        }
+        logger.info("Pending request index loaded with {} requests", index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHelpRequestChanged(HelpRequestChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (deferred != null) {
+                deferred.add(event);
+            } else {
+                apply(event);
+            }
+        }
+    }
+
+    /**
+     * Whether nearby searches can be answered from memory.
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public List<HelpRequestResponse> findWithin(double lat, double lng, double radiusKm) {
+        return index.findWithin(lat, lng, radiusKm);
+    }
+
+    public List<GridIndex.Neighbor<HelpRequestResponse>> nearest(double lat, double lng, double radiusKm,
+                                                                 NearbyCursor after, int limit) {
+        double afterDistance = after != null ? after.getDistanceKm() : -1;
+        long afterId = after != null ? after.getId() : Long.MIN_VALUE;
+        return index.nearest(lat, lng, radiusKm, afterDistance, afterId, limit);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private void apply(HelpRequestChangedEvent event) {
+        if (event.isPendingAfter()) {
+            put(event.getHelpRequest());
+        } else {
+            index.remove(event.getHelpRequest().getId());
+        }
+    }
+
+    private void put(HelpRequestResponse helpRequest) {
+        index.put(helpRequest.getId(), helpRequest.getLatitude(), helpRequest.getLongitude(), helpRequest);
+    }
+}
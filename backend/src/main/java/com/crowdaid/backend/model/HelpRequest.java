@@ -3,12 +3,28 @@ package com.crowdaid.backend.model;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Entity
 @Table(name = "help_requests")
+@NamedEntityGraph(
+        name = HelpRequest.WITH_PARTICIPANTS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "requester", subgraph = "participant"),
+                @NamedAttributeNode(value = "volunteer", subgraph = "participant")
+        },
+        // roles is an eager collection, so it must be joined too or each user costs another select
+        subgraphs = @NamedSubgraph(name = "participant", attributeNodes = @NamedAttributeNode("roles"))
+)
 public class HelpRequest extends DateAudit {
+
+    // Entity graph that loads everything HelpRequestResponse reads in the same statement
+    public static final String WITH_PARTICIPANTS = "HelpRequest.withParticipants";
+
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -51,6 +67,10 @@ public class HelpRequest extends DateAudit {
         CANCELLED
     }
 
+    // Statuses in which a request still needs, or is receiving, help
+    public static final List<Status> OPEN_STATUSES =
+            Collections.unmodifiableList(Arrays.asList(Status.PENDING, Status.ACCEPTED, Status.IN_PROGRESS));
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -6,10 +6,24 @@ import javax.validation.constraints.NotNull;
 
 @Entity
 @Table(name = "messages")
+@NamedEntityGraph(
+        name = Message.WITH_SENDER,
+        attributeNodes = @NamedAttributeNode(value = "sender", subgraph = "sender"),
+        subgraphs = @NamedSubgraph(name = "sender", attributeNodes = @NamedAttributeNode("roles"))
+)
 public class Message extends DateAudit {
 
+    // Entity graph that loads everything MessageResponse reads in the same statement
+    public static final String WITH_SENDER = "Message.withSender";
+
+    // Ids come in pooled blocks from id_generators (see V1_0_8) instead of AUTO_INCREMENT,
+    // which lets Hibernate batch message inserts. An id is taken before its insert commits,
+    // and each instance draws from its own block, so id order is only approximately commit
+    // order: a concurrent send can become visible below an id that was already read.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "message_id")
+    @TableGenerator(name = "message_id", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "messages", allocationSize = 50)
     private Long id;
 
     @NotBlank
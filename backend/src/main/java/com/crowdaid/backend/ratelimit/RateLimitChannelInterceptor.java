@@ -0,0 +1,63 @@
+package com.crowdaid.backend.ratelimit;
+
+import com.crowdaid.backend.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Applies the STOMP rules of {@link TokenBucketRateLimiter} to inbound SEND frames, per user
+ * (or per session before authentication). A limited frame is dropped before it reaches a
+ * message handler; the client is not told, as with any message lost on the way.
+ */
+@Component
+public class RateLimitChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitChannelInterceptor.class);
+
+    private final TokenBucketRateLimiter rateLimiter;
+
+    public RateLimitChannelInterceptor(TokenBucketRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SEND.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        TokenBucketRateLimiter.CompiledRule rule = rateLimiter.findStompRule(accessor.getDestination());
+        if (rule == null) {
+            return message;
+        }
+
+        String key = callerKey(accessor);
+        if (!rateLimiter.tryAcquire(rule, key).allowed()) {
+            logger.debug("Dropped STOMP message to {} from {}: rate limit {} exceeded",
+                    accessor.getDestination(), key, rule.getName());
+            return null;
+        }
+        return message;
+    }
+
+    // Helper method to key frames by user id, falling back to the WebSocket session
+    private String callerKey(StompHeaderAccessor accessor) {
+        Principal user = accessor.getUser();
+        if (user instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "u:" + principal.getId();
+        }
+        return "s:" + accessor.getSessionId();
+    }
+}
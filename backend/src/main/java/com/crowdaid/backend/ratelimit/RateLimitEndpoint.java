@@ -0,0 +1,33 @@
+package com.crowdaid.backend.ratelimit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/ratelimits}: the callers rejected most often, with their rule and remaining
+ * tokens. Per-key figures live here rather than in meter tags, whose cardinality has to stay low.
+ */
+@Component
+@Endpoint(id = "ratelimits")
+public class RateLimitEndpoint {
+
+    private static final int TOP_KEYS = 50;
+
+    private final TokenBucketRateLimiter rateLimiter;
+
+    public RateLimitEndpoint(TokenBucketRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> rateLimits() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("buckets", rateLimiter.bucketCount());
+        result.put("topLimited", rateLimiter.topLimited(TOP_KEYS));
+        return result;
+    }
+}
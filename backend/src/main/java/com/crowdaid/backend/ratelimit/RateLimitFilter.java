@@ -0,0 +1,69 @@
+package com.crowdaid.backend.ratelimit;
+
+import com.crowdaid.backend.dto.ApiResponse;
+import com.crowdaid.backend.security.UserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Applies the HTTP rules of {@link TokenBucketRateLimiter} inside the security filter chain,
+ * after JWT authentication, so signed-in callers are limited per user and anonymous ones per
+ * client address. Limited requests get 429 with Retry-After and X-RateLimit-* headers.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    @Autowired
+    private TokenBucketRateLimiter rateLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        TokenBucketRateLimiter.CompiledRule rule = rateLimiter.findHttpRule(request.getMethod(), path);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenBucketRateLimiter.Decision decision = rateLimiter.tryAcquire(rule, callerKey(request));
+        response.setHeader(LIMIT_HEADER, String.valueOf(decision.limit()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Whole seconds, rounded up so a client retrying on time finds a token
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (decision.retryAfterMs() + 999) / 1000)));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiResponse(false, "Too many requests, please retry later"));
+    }
+
+    // Helper method to key signed-in callers by user id and everyone else by client address
+    private String callerKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "u:" + principal.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,113 @@
+package com.crowdaid.backend.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limit rules under {@code app.rate-limit}. HTTP rules match request paths (and the method,
+ * when one is set) and STOMP rules match SEND destinations, both as Ant patterns; the first
+ * matching rule applies. Each rule is a token bucket per caller: {@code capacity} requests in a
+ * burst, refilled at {@code refill-per-second}.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int maxBuckets = 100000;
+    private long sweepIntervalMs = 60000;
+    private List<Rule> http = new ArrayList<>();
+    private List<Rule> stomp = new ArrayList<>();
+
+    public static class Rule {
+        private String name;
+        private String method;
+        private String pattern;
+        private int capacity;
+        private int refillPerSecond;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(int refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public long getSweepIntervalMs() {
+        return sweepIntervalMs;
+    }
+
+    public void setSweepIntervalMs(long sweepIntervalMs) {
+        this.sweepIntervalMs = sweepIntervalMs;
+    }
+
+    public List<Rule> getHttp() {
+        return http;
+    }
+
+    public void setHttp(List<Rule> http) {
+        this.http = http;
+    }
+
+    public List<Rule> getStomp() {
+        return stomp;
+    }
+
+    public void setStomp(List<Rule> stomp) {
+        this.stomp = stomp;
+    }
+}
@@ -0,0 +1,268 @@
+package com.crowdaid.backend.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per (rule, caller) for the rules in {@link RateLimitProperties}.
+ * <p>
+ * A bucket is a single {@code long} holding the time of its last refill and its token count in
+ * thousandths, updated with compare-and-set, so callers never lock and contention is limited to
+ * requests for the same key. A bucket that has refilled to capacity behaves exactly like a new
+ * one, so such buckets are dropped by a periodic sweep (and eagerly once there are more than
+ * {@code max-buckets}); if the map is still full, new callers of a rule share one overflow bucket.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLIS_PER_TOKEN = 1000;
+    // Largest capacity whose thousandths still fit the token bits
+    private static final int MAX_CAPACITY = (int) (TOKEN_MASK / MILLIS_PER_TOKEN);
+    private static final String OVERFLOW_KEY = "*overflow*";
+    // Minimum gap between eager sweeps while the map is full
+    private static final long EAGER_SWEEP_INTERVAL_MS = 1000;
+
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final List<CompiledRule> httpRules;
+    private final List<CompiledRule> stompRules;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final AntPathMatcher destinationMatcher = new AntPathMatcher();
+    private final long origin = System.nanoTime();
+    private volatile long lastSweepAt;
+
+    public TokenBucketRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxBuckets = properties.getMaxBuckets();
+        this.httpRules = compile(properties.getHttp(), "http", meterRegistry);
+        this.stompRules = compile(properties.getStomp(), "stomp", meterRegistry);
+        Gauge.builder("ratelimit.buckets", buckets, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * The first HTTP rule matching the method and the path within the application, or null.
+     */
+    public CompiledRule findHttpRule(String method, String path) {
+        if (!enabled) {
+            return null;
+        }
+        for (CompiledRule rule : httpRules) {
+            if ((rule.method == null || rule.method.equalsIgnoreCase(method)) && pathMatcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The first STOMP rule matching a SEND destination, or null.
+     */
+    public CompiledRule findStompRule(String destination) {
+        if (!enabled || destination == null) {
+            return null;
+        }
+        for (CompiledRule rule : stompRules) {
+            if (destinationMatcher.match(rule.pattern, destination)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes one token from the caller's bucket for {@code rule}.
+     */
+    public Decision tryAcquire(CompiledRule rule, String key) {
+        Bucket bucket = bucketFor(rule, key);
+        long now = now();
+        while (true) {
+            long state = bucket.state.get();
+            long last = state >>> TOKEN_BITS;
+            long tokens = refill(rule, state, now);
+            if (tokens >= MILLIS_PER_TOKEN) {
+                long next = pack(Math.max(now, last), tokens - MILLIS_PER_TOKEN);
+                if (bucket.state.compareAndSet(state, next)) {
+                    rule.allowed.increment();
+                    return new Decision(true, rule.capacity, (tokens - MILLIS_PER_TOKEN) / MILLIS_PER_TOKEN, 0);
+                }
+            } else {
+                bucket.rejections.increment();
+                rule.limited.increment();
+                long retryAfterMs = (MILLIS_PER_TOKEN - tokens + rule.refillPerMs - 1) / rule.refillPerMs;
+                return new Decision(false, rule.capacity, 0, retryAfterMs);
+            }
+        }
+    }
+
+    /**
+     * Callers with the most rejected requests, for the {@code ratelimits} actuator endpoint.
+     */
+    public List<Map<String, Object>> topLimited(int limit) {
+        List<Map.Entry<String, Bucket>> limited = new ArrayList<>();
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            if (entry.getValue().rejections.sum() > 0) {
+                limited.add(entry);
+            }
+        }
+        limited.sort(Comparator.comparingLong((Map.Entry<String, Bucket> entry) -> entry.getValue().rejections.sum()).reversed());
+
+        long now = now();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<String, Bucket> entry : limited.subList(0, Math.min(limit, limited.size()))) {
+            Bucket bucket = entry.getValue();
+            result.add(Map.of(
+                    "rule", bucket.rule.name,
+                    "key", bucket.key,
+                    "rejections", bucket.rejections.sum(),
+                    "tokens", refill(bucket.rule, bucket.state.get(), now) / MILLIS_PER_TOKEN));
+        }
+        return result;
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = now();
+            lastSweepAt = now;
+            int before = buckets.size();
+            // A request racing with the removal may still spend a token from the dropped bucket
+            buckets.entrySet().removeIf(entry -> {
+                Bucket bucket = entry.getValue();
+                return refill(bucket.rule, bucket.state.get(), now) >= bucket.rule.capacityMillis;
+            });
+            logger.debug("Rate limit sweep dropped {} of {} buckets", before - buckets.size(), before);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    // Helper method to find or create the bucket of a caller, falling back to the rule's overflow bucket
+    private Bucket bucketFor(CompiledRule rule, String key) {
+        String bucketKey = rule.name + '|' + key;
+        Bucket bucket = buckets.get(bucketKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            if (now() - lastSweepAt >= EAGER_SWEEP_INTERVAL_MS) {
+                sweep();
+            }
+            if (buckets.size() >= maxBuckets) {
+                return buckets.computeIfAbsent(rule.name + '|' + OVERFLOW_KEY,
+                        k -> new Bucket(rule, OVERFLOW_KEY, pack(now(), rule.capacityMillis)));
+            }
+        }
+        return buckets.computeIfAbsent(bucketKey, k -> new Bucket(rule, key, pack(now(), rule.capacityMillis)));
+    }
+
+    // Token thousandths in a bucket state after refilling it up to now
+    private static long refill(CompiledRule rule, long state, long now) {
+        long elapsed = Math.max(0, now - (state >>> TOKEN_BITS));
+        // Capping the elapsed time keeps the product from overflowing after a long idle period
+        long added = Math.min(elapsed, rule.capacityMillis) * rule.refillPerMs;
+        return Math.min(rule.capacityMillis, (state & TOKEN_MASK) + added);
+    }
+
+    private static long pack(long timeMs, long tokens) {
+        return (timeMs << TOKEN_BITS) | tokens;
+    }
+
+    private long now() {
+        return (System.nanoTime() - origin) / 1_000_000;
+    }
+
+    private static List<CompiledRule> compile(List<RateLimitProperties.Rule> rules, String type, MeterRegistry meterRegistry) {
+        List<CompiledRule> compiled = new ArrayList<>(rules.size());
+        for (RateLimitProperties.Rule rule : rules) {
+            if (rule.getName() == null || rule.getPattern() == null) {
+                throw new IllegalStateException("Rate limit rules need a name and a pattern");
+            }
+            if (rule.getCapacity() < 1 || rule.getCapacity() > MAX_CAPACITY || rule.getRefillPerSecond() < 1) {
+                throw new IllegalStateException("Rate limit rule " + rule.getName()
+                        + " needs a capacity between 1 and " + MAX_CAPACITY + " and a refill of at least 1 per second");
+            }
+            compiled.add(new CompiledRule(rule, type, meterRegistry));
+        }
+        return compiled;
+    }
+
+    /**
+     * Outcome of {@link #tryAcquire}: the rule's capacity, the tokens left after this request
+     * and, when it was limited, how long until the next token.
+     */
+    public record Decision(boolean allowed, int limit, long remaining, long retryAfterMs) {
+    }
+
+    /**
+     * A configured rule with its refill rate in token thousandths per millisecond (numerically
+     * the same as tokens per second) and its allowed/limited counters.
+     */
+    public static final class CompiledRule {
+        private final String name;
+        private final String method;
+        private final String pattern;
+        private final int capacity;
+        private final long capacityMillis;
+        private final long refillPerMs;
+        private final Counter allowed;
+        private final Counter limited;
+
+        private CompiledRule(RateLimitProperties.Rule rule, String type, MeterRegistry meterRegistry) {
+            this.name = rule.getName();
+            this.method = rule.getMethod();
+            this.pattern = rule.getPattern();
+            this.capacity = rule.getCapacity();
+            this.capacityMillis = rule.getCapacity() * MILLIS_PER_TOKEN;
+            this.refillPerMs = rule.getRefillPerSecond();
+            this.allowed = Counter.builder("ratelimit.requests")
+                    .tag("type", type).tag("rule", name).tag("result", "allowed").register(meterRegistry);
+            this.limited = Counter.builder("ratelimit.requests")
+                    .tag("type", type).tag("rule", name).tag("result", "limited").register(meterRegistry);
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static final class Bucket {
+        private final CompiledRule rule;
+        private final String key;
+        private final AtomicLong state;
+        private final LongAdder rejections = new LongAdder();
+
+        private Bucket(CompiledRule rule, String key, long state) {
+            this.rule = rule;
+            this.key = key;
+            this.state = new AtomicLong(state);
+        }
+    }
+}
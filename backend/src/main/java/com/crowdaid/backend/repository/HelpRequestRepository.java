@@ -2,18 +2,45 @@ package com.crowdaid.backend.repository;
 
 import com.crowdaid.backend.model.HelpRequest;
 import com.crowdaid.backend.model.User;
+import com.crowdaid.backend.repository.projection.HelpRequestDistance;
+import com.crowdaid.backend.repository.projection.HelpRequestParticipants;
+import com.crowdaid.backend.repository.projection.HelpRequestPin;
+import com.crowdaid.backend.repository.projection.VolunteerLoad;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface HelpRequestRepository extends JpaRepository<HelpRequest, Long> {
     List<HelpRequest> findByRequesterId(Long requesterId);
     List<HelpRequest> findByVolunteerId(Long volunteerId);
-    
+
+    @EntityGraph(HelpRequest.WITH_PARTICIPANTS)
+    List<HelpRequest> findByStatus(HelpRequest.Status status);
+
+    @EntityGraph(HelpRequest.WITH_PARTICIPANTS)
+    @Query("SELECT hr FROM HelpRequest hr WHERE hr.id = :id")
+    Optional<HelpRequest> findWithParticipantsById(@Param("id") Long id);
+
+    // Just the ids needed for access checks; the volunteer join is outer since it may be unassigned
+    @Query("SELECT hr.id AS id, hr.requester.id AS requesterId, v.id AS volunteerId, hr.status AS status " +
+           "FROM HelpRequest hr LEFT JOIN hr.volunteer v WHERE hr.id = :id")
+    Optional<HelpRequestParticipants> findParticipantsById(@Param("id") Long id);
+
+    @EntityGraph(HelpRequest.WITH_PARTICIPANTS)
+    @Query("SELECT hr FROM HelpRequest hr WHERE hr.id IN :ids")
+    List<HelpRequest> findWithParticipantsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(HelpRequest.WITH_PARTICIPANTS)
     @Query("SELECT hr FROM HelpRequest hr WHERE hr.status = 'PENDING' AND " +
            "(hr.latitude BETWEEN :minLat AND :maxLat) AND " +
            "(hr.longitude BETWEEN :minLng AND :maxLng)")
@@ -23,10 +50,139 @@ public interface HelpRequestRepository extends JpaRepository<HelpRequest, Long>
             @Param("minLng") double minLng,
             @Param("maxLng") double maxLng
     );
+
+    // Same search on the SPATIAL-indexed location column (MySQL 8, see V1_0_2..V1_0_4).
+    // Both geometries are WKT in SRID 4326 axis order, i.e. "POINT(lat lng)".
+    // Returns ids only; load them with findWithParticipantsByIdIn.
+    @Query(value = "SELECT hr.id FROM help_requests hr WHERE hr.status = 'PENDING' AND " +
+           "MBRContains(ST_GeomFromText(:envelope, 4326), hr.location) AND " +
+           "ST_Distance_Sphere(hr.location, ST_GeomFromText(:center, 4326)) <= :radiusMeters",
+           nativeQuery = true)
+    List<Long> findNearbyPendingRequestIdsSpatial(
+            @Param("envelope") String envelopeWkt,
+            @Param("center") String centerWkt,
+            @Param("radiusMeters") double radiusMeters
+    );
+
+    @Query(value = "SELECT hr.id FROM help_requests hr WHERE hr.status = 'PENDING' AND " +
+           "MBRContains(ST_GeomFromText(:envelope, 4326), hr.location)",
+           nativeQuery = true)
+    List<Long> findPendingRequestIdsInEnvelope(@Param("envelope") String envelopeWkt);
+
+    // Distance-ordered page of pending requests, resuming strictly after (afterDistance, afterId)
+    @Query(value = "SELECT id, distance_km AS distanceKm FROM (" +
+           "SELECT hr.id, 2 * 6371.0 * ASIN(LEAST(1, SQRT(" +
+           "POWER(SIN(RADIANS(hr.latitude - :lat) / 2), 2) + " +
+           "COS(RADIANS(:lat)) * COS(RADIANS(hr.latitude)) * POWER(SIN(RADIANS(hr.longitude - :lng) / 2), 2)" +
+           "))) AS distance_km FROM help_requests hr WHERE hr.status = 'PENDING' AND " +
+           "(hr.latitude BETWEEN :minLat AND :maxLat) AND " +
+           "(hr.longitude BETWEEN :minLng AND :maxLng)" +
+           ") nearby WHERE distance_km <= :radius AND " +
+           "(distance_km > :afterDistance OR (distance_km = :afterDistance AND id > :afterId)) " +
+           "ORDER BY distance_km, id LIMIT :limit", nativeQuery = true)
+    List<HelpRequestDistance> findNearestPendingRequests(
+            @Param("lat") double lat,
+            @Param("lng") double lng,
+            @Param("radius") double radiusInKm,
+            @Param("minLat") double minLat,
+            @Param("maxLat") double maxLat,
+            @Param("minLng") double minLng,
+            @Param("maxLng") double maxLng,
+            @Param("afterDistance") double afterDistance,
+            @Param("afterId") long afterId,
+            @Param("limit") int limit
+    );
     
-    @Query("SELECT hr FROM HelpRequest hr WHERE hr.requester = :user OR hr.volunteer = :user")
-    List<HelpRequest> findUserRequests(@Param("user") User user);
-    
+    // Newest-first page of the requests a user created or volunteered for, strictly before
+    // (beforeCreatedAt, beforeId). Each UNION branch is one range scan on its composite index
+    // (see V1_0_5); an OR across the two columns could use neither.
+    @Query(value = "SELECT id FROM (" +
+           "(SELECT hr.id, hr.created_at FROM help_requests hr WHERE hr.requester_id = :userId " +
+           "AND hr.status IN (:statuses) " +
+           "AND (hr.created_at < :beforeCreatedAt OR (hr.created_at = :beforeCreatedAt AND hr.id < :beforeId)) " +
+           "ORDER BY hr.created_at DESC, hr.id DESC LIMIT :limit) " +
+           "UNION " +
+           "(SELECT hr.id, hr.created_at FROM help_requests hr WHERE hr.volunteer_id = :userId " +
+           "AND hr.status IN (:statuses) " +
+           "AND (hr.created_at < :beforeCreatedAt OR (hr.created_at = :beforeCreatedAt AND hr.id < :beforeId)) " +
+           "ORDER BY hr.created_at DESC, hr.id DESC LIMIT :limit)" +
+           ") mine ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findUserRequestIds(
+            @Param("userId") Long userId,
+            @Param("statuses") List<String> statuses,
+            @Param("beforeCreatedAt") Instant beforeCreatedAt,
+            @Param("beforeId") long beforeId,
+            @Param("limit") int limit
+    );
+
+    // First page of the same listing. There is no cursor to compare with, and no sentinel instant
+    // that is valid for every TIMESTAMP column (MySQL stops at 2038)
+    @Query(value = "SELECT id FROM (" +
+           "(SELECT hr.id, hr.created_at FROM help_requests hr WHERE hr.requester_id = :userId " +
+           "AND hr.status IN (:statuses) " +
+           "ORDER BY hr.created_at DESC, hr.id DESC LIMIT :limit) " +
+           "UNION " +
+           "(SELECT hr.id, hr.created_at FROM help_requests hr WHERE hr.volunteer_id = :userId " +
+           "AND hr.status IN (:statuses) " +
+           "ORDER BY hr.created_at DESC, hr.id DESC LIMIT :limit)" +
+           ") mine ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findLatestUserRequestIds(
+            @Param("userId") Long userId,
+            @Param("statuses") List<String> statuses,
+            @Param("limit") int limit
+    );
+
+    @Query("SELECT hr.id AS id, hr.latitude AS latitude, hr.longitude AS longitude, " +
+           "hr.status AS status, hr.createdAt AS createdAt FROM HelpRequest hr WHERE hr.status IN :statuses")
+    List<HelpRequestPin> findPinsByStatusIn(@Param("statuses") List<HelpRequest.Status> statuses);
+
+    @Query("SELECT hr.id AS id, hr.latitude AS latitude, hr.longitude AS longitude, " +
+           "hr.status AS status, hr.createdAt AS createdAt FROM HelpRequest hr " +
+           "WHERE hr.status IN :statuses " +
+           "AND hr.latitude BETWEEN :minLat AND :maxLat " +
+           "AND hr.longitude BETWEEN :minLng AND :maxLng " +
+           "ORDER BY hr.id DESC")
+    List<HelpRequestPin> findPinsInBox(
+            @Param("statuses") List<HelpRequest.Status> statuses,
+            @Param("minLat") double minLat,
+            @Param("maxLat") double maxLat,
+            @Param("minLng") double minLng,
+            @Param("maxLng") double maxLng,
+            Pageable pageable
+    );
+
+    // Same pins through the SPATIAL index on location (see V1_0_4); the envelope is WKT in
+    // SRID 4326 axis order, i.e. "lat lng"
+    @Query(value = "SELECT hr.id AS id, hr.latitude AS latitude, hr.longitude AS longitude, " +
+           "hr.status AS status, hr.created_at AS createdAt FROM help_requests hr " +
+           "WHERE hr.status IN (:statuses) " +
+           "AND MBRContains(ST_GeomFromText(:envelope, 4326), hr.location) " +
+           "ORDER BY hr.id DESC", nativeQuery = true)
+    List<HelpRequestPin> findPinsInEnvelope(
+            @Param("statuses") List<String> statuses,
+            @Param("envelope") String envelopeWkt,
+            Pageable pageable
+    );
+
+    // Compare-and-set transition: only one concurrent caller can move a request out of `expected`
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE HelpRequest hr SET hr.volunteer = :volunteer, hr.status = :next, hr.updatedAt = :now " +
+           "WHERE hr.id = :id AND hr.status = :expected")
+    int assignVolunteerIfStatus(
+            @Param("id") Long id,
+            @Param("volunteer") User volunteer,
+            @Param("expected") HelpRequest.Status expected,
+            @Param("next") HelpRequest.Status next,
+            @Param("now") Instant now
+    );
+
     long countByRequesterAndStatusIn(User requester, List<HelpRequest.Status> statuses);
     long countByVolunteerAndStatusIn(User volunteer, List<HelpRequest.Status> statuses);
+
+    @Query("SELECT hr.volunteer.id AS volunteerId, COUNT(hr) AS activeCount FROM HelpRequest hr " +
+           "WHERE hr.volunteer.id IN :volunteerIds AND hr.status IN :statuses GROUP BY hr.volunteer.id")
+    List<VolunteerLoad> countByVolunteerIdsAndStatusIn(
+            @Param("volunteerIds") List<Long> volunteerIds,
+            @Param("statuses") List<HelpRequest.Status> statuses
+    );
 }
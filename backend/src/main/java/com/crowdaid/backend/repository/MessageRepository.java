@@ -2,7 +2,14 @@ package com.crowdaid.backend.repository;
 
 import com.crowdaid.backend.model.HelpRequest;
 import com.crowdaid.backend.model.Message;
+import com.crowdaid.backend.repository.projection.InboxEntry;
+import com.crowdaid.backend.repository.projection.ReadWatermark;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,5 +20,80 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     
     List<Message> findByHelpRequestIdOrderByCreatedAtAsc(Long helpRequestId);
     
-    long countByHelpRequestAndSenderIdNotAndReadFalse(HelpRequest helpRequest, Long senderId);
+    // Keyset pages of a conversation by message id; both use the (help_request_id, id, sender_id) index
+    @EntityGraph(Message.WITH_SENDER)
+    @Query("SELECT m FROM Message m WHERE m.helpRequest.id = :helpRequestId AND m.id < :beforeId ORDER BY m.id DESC")
+    List<Message> findPageBefore(
+            @Param("helpRequestId") Long helpRequestId,
+            @Param("beforeId") long beforeId,
+            Pageable pageable
+    );
+
+    // Delta sync after the newest id a client holds. Ids are not strictly commit order (see
+    // Message.id), so a message committed late below afterId is not returned here; clients
+    // still receive it on /topic/chat and see it in history pages
+    @EntityGraph(Message.WITH_SENDER)
+    @Query("SELECT m FROM Message m WHERE m.helpRequest.id = :helpRequestId AND m.id > :afterId ORDER BY m.id ASC")
+    List<Message> findPageAfter(
+            @Param("helpRequestId") Long helpRequestId,
+            @Param("afterId") long afterId,
+            Pageable pageable
+    );
+
+    // Messages from other participants above the user's read watermark (see V1_0_7)
+    @Query(value = "SELECT COUNT(*) FROM messages m WHERE m.help_request_id = :helpRequestId " +
+           "AND m.id > COALESCE((SELECT w.last_read_message_id FROM message_read_watermarks w " +
+           "WHERE w.help_request_id = :helpRequestId AND w.user_id = :userId), 0) " +
+           "AND m.sender_id <> :userId", nativeQuery = true)
+    long countUnread(@Param("helpRequestId") Long helpRequestId, @Param("userId") Long userId);
+
+    // Every open conversation of the user with its newest message and unread count, most recent
+    // activity first. Conversations are found through the two participant indexes (see V1_0_5);
+    // the last message and the unread count are index seeks per conversation.
+    @Query(value = "SELECT hr.id AS helpRequestId, hr.description AS description, hr.status AS status, " +
+           "lm.id AS lastMessageId, lm.sender_id AS lastMessageSenderId, " +
+           "LEFT(lm.content, :previewLength) AS lastMessagePreview, lm.created_at AS lastMessageAt, " +
+           "(SELECT COUNT(*) FROM messages m WHERE m.help_request_id = hr.id " +
+           "AND m.id > COALESCE(w.last_read_message_id, 0) AND m.sender_id <> :userId) AS unreadCount " +
+           "FROM (" +
+           "SELECT id FROM help_requests WHERE requester_id = :userId AND status IN (:statuses) " +
+           "UNION " +
+           "SELECT id FROM help_requests WHERE volunteer_id = :userId AND status IN (:statuses)" +
+           ") mine " +
+           "JOIN help_requests hr ON hr.id = mine.id " +
+           "LEFT JOIN messages lm ON lm.id = " +
+           "(SELECT MAX(m2.id) FROM messages m2 WHERE m2.help_request_id = hr.id) " +
+           "LEFT JOIN message_read_watermarks w ON w.help_request_id = hr.id AND w.user_id = :userId " +
+           "ORDER BY COALESCE(lm.id, 0) DESC, hr.id DESC", nativeQuery = true)
+    List<InboxEntry> findInbox(
+            @Param("userId") Long userId,
+            @Param("statuses") List<String> statuses,
+            @Param("previewLength") int previewLength
+    );
+
+    @Query(value = "SELECT w.user_id AS userId, w.last_read_message_id AS lastReadMessageId " +
+           "FROM message_read_watermarks w WHERE w.help_request_id = :helpRequestId", nativeQuery = true)
+    List<ReadWatermark> findReadWatermarks(@Param("helpRequestId") Long helpRequestId);
+
+    // Moves the user's watermark forward to messageId; it never moves backwards. A message that
+    // commits late with an id below the watermark counts as read (see Message.id)
+    @Modifying
+    @Query(value = "INSERT INTO message_read_watermarks (help_request_id, user_id, last_read_message_id) " +
+           "VALUES (:helpRequestId, :userId, :messageId) " +
+           "ON DUPLICATE KEY UPDATE last_read_message_id = " +
+           "GREATEST(last_read_message_id, VALUES(last_read_message_id))", nativeQuery = true)
+    int advanceReadWatermark(
+            @Param("helpRequestId") Long helpRequestId,
+            @Param("userId") Long userId,
+            @Param("messageId") long messageId
+    );
+
+    // Same upsert up to the newest message in the conversation
+    @Modifying
+    @Query(value = "INSERT INTO message_read_watermarks (help_request_id, user_id, last_read_message_id) " +
+           "SELECT :helpRequestId, :userId, COALESCE(MAX(m.id), 0) FROM messages m " +
+           "WHERE m.help_request_id = :helpRequestId " +
+           "ON DUPLICATE KEY UPDATE last_read_message_id = " +
+           "GREATEST(last_read_message_id, VALUES(last_read_message_id))", nativeQuery = true)
+    int markAllRead(@Param("helpRequestId") Long helpRequestId, @Param("userId") Long userId);
 }
@@ -1,7 +1,12 @@
 package com.crowdaid.backend.repository;
 
+import com.crowdaid.backend.model.RoleName;
 import com.crowdaid.backend.model.User;
+import com.crowdaid.backend.repository.projection.UserIdentity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,5 +20,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
-    List<User> findByRoles_NameAndIsAvailableTrue(String roleName);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User u WHERE u.id IN :ids")
+    List<UserIdentity> findIdentitiesByIdIn(@Param("ids") List<Long> ids);
+
+    // Keyset scan over usernames and emails only, for the availability filters
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserIdentity> findIdentitiesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT u FROM User u JOIN u.roles r WHERE r = :role AND u.isAvailable = true")
+    List<User> findByRoles_NameAndIsAvailableTrue(@Param("role") RoleName role);
 }
@@ -0,0 +1,6 @@
+package com.crowdaid.backend.repository.projection;
+
+public interface HelpRequestDistance {
+    Long getId();
+    Double getDistanceKm();
+}
@@ -0,0 +1,10 @@
+package com.crowdaid.backend.repository.projection;
+
+import com.crowdaid.backend.model.HelpRequest;
+
+public interface HelpRequestParticipants {
+    Long getId();
+    Long getRequesterId();
+    Long getVolunteerId();
+    HelpRequest.Status getStatus();
+}
@@ -0,0 +1,13 @@
+package com.crowdaid.backend.repository.projection;
+
+import com.crowdaid.backend.model.HelpRequest;
+
+import java.time.Instant;
+
+public interface HelpRequestPin {
+    Long getId();
+    Double getLatitude();
+    Double getLongitude();
+    HelpRequest.Status getStatus();
+    Instant getCreatedAt();
+}
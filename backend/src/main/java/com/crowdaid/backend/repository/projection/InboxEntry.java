@@ -0,0 +1,16 @@
+package com.crowdaid.backend.repository.projection;
+
+import com.crowdaid.backend.model.HelpRequest;
+
+import java.time.Instant;
+
+public interface InboxEntry {
+    Long getHelpRequestId();
+    String getDescription();
+    HelpRequest.Status getStatus();
+    Long getLastMessageId();
+    Long getLastMessageSenderId();
+    String getLastMessagePreview();
+    Instant getLastMessageAt();
+    Long getUnreadCount();
+}
@@ -0,0 +1,7 @@
+package com.crowdaid.backend.repository.projection;
+
+public interface UserIdentity {
+    Long getId();
+    String getUsername();
+    String getEmail();
+}
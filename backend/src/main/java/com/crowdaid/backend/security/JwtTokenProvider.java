@@ -1,48 +1,71 @@
 package com.crowdaid.backend.security;
 
 import io.jsonwebtoken.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    // Claims that let a request be authenticated without loading the user
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String NAME_CLAIM = "name";
+    private static final String EMAIL_CLAIM = "email";
+    private static final String VERSION_CLAIM = "ver";
+    private static final int CLAIMS_VERSION = 1;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationInMs;
 
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
     public String generateToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
-                .compact();
-    }
-
-    public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+                .setIssuedAt(now)
+                .setExpiration(expiryDate);
+        if (userPrincipal instanceof UserPrincipal) {
+            UserPrincipal user = (UserPrincipal) userPrincipal;
+            builder.claim(VERSION_CLAIM, CLAIMS_VERSION)
+                    .claim(USER_ID_CLAIM, user.getId())
+                    .claim(ROLES_CLAIM, user.getAuthorities().stream()
+                            .map(GrantedAuthority::getAuthority)
+                            .collect(Collectors.toList()))
+                    .claim(NAME_CLAIM, user.getName())
+                    .claim(EMAIL_CLAIM, user.getEmail());
+        }
+        return builder.signWith(SignatureAlgorithm.HS512, jwtSecret).compact();
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Verifies the token once and returns its claims, or null if it is invalid, expired or
+     * signed out.
+     */
+    public Claims parseClaims(String authToken) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            Claims claims = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken).getBody();
+            return revocationRegistry.isRevoked(claims.getId()) ? null : claims;
         } catch (SignatureException ex) {
             // Handle invalid JWT signature
         } catch (MalformedJwtException ex) {
@@ -54,6 +77,43 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             // Handle JWT claims string is empty
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * The principal carried by the claims, or null for tokens issued before the claims were
+     * added; those still have to be resolved through the user details service.
+     */
+    public UserPrincipal getPrincipal(Claims claims) {
+        Integer version = claims.get(VERSION_CLAIM, Integer.class);
+        if (version == null || version < CLAIMS_VERSION) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles != null) {
+            for (Object role : roles) {
+                authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+            }
+        }
+        return new UserPrincipal(
+                claims.get(USER_ID_CLAIM, Long.class),
+                claims.get(NAME_CLAIM, String.class),
+                claims.getSubject(),
+                claims.get(EMAIL_CLAIM, String.class),
+                null,
+                authorities
+        );
+    }
+
+    /**
+     * Signs a token out until it expires. Invalid or already expired tokens are ignored.
+     */
+    public void revokeToken(String authToken) {
+        Claims claims = parseClaims(authToken);
+        if (claims != null) {
+            revocationRegistry.revoke(claims.getId(), claims.getExpiration());
+        }
     }
 }
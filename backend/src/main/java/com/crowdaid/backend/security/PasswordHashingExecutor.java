@@ -0,0 +1,70 @@
+package com.crowdaid.backend.security;
+
+import com.crowdaid.backend.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Small fixed pool for BCrypt work (sign-in checks and sign-up hashing). Keeping it off the
+ * request threads means a sign-in storm can only use this pool, not the whole server. When the
+ * pool and its short queue are full, new work is refused straight away with a
+ * {@link ServiceOverloadedException} so clients back off instead of piling up.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Counter rejections;
+
+    public PasswordHashingExecutor(@Value("${app.auth.hashing.pool-size:0}") int poolSize,
+                                   @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.auth.hashing.retry-after-seconds:2}") long retryAfterSeconds,
+                                   MeterRegistry meterRegistry) {
+        // BCrypt is pure CPU, so by default one thread per core
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rejections = Counter.builder("auth.hashing.rejections").register(meterRegistry);
+        new ExecutorServiceMetrics(executor, "password-hashing", Collections.emptyList()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool.
+     *
+     * @throws ServiceOverloadedException if the pool cannot take more work right now
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new ServiceOverloadedException("Too many sign-in attempts, please retry shortly", retryAfterSeconds);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        executor.shutdown();
+    }
+}
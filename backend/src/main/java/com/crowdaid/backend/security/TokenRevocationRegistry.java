@@ -0,0 +1,36 @@
+package com.crowdaid.backend.security;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids of tokens that were signed out before they expired. Entries are only needed until the
+ * token would have expired anyway, so the set stays small. Like the other in-memory state of
+ * this app it assumes a single instance and is empty again after a restart.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    // Token id -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId != null && expiresAt != null && expiresAt.getTime() > System.currentTimeMillis()) {
+            revoked.put(tokenId, expiresAt.getTime());
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.revocation-purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
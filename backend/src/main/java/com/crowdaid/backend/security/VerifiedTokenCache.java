@@ -0,0 +1,92 @@
+package com.crowdaid.backend.security;
+
+import com.crowdaid.backend.cache.BoundedCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Principals of recently verified tokens, shared by the REST filter and the STOMP CONNECT
+ * interceptor so a token's signature and claims are checked once rather than on every request
+ * or reconnect. Entries are keyed by a SHA-256 digest of the token, so raw tokens are not kept,
+ * and expire with the token itself. Signed-out tokens are still rejected on a hit.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtTokenProvider tokenProvider;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final BoundedCache<String, Entry> cache;
+
+    public VerifiedTokenCache(JwtTokenProvider tokenProvider,
+                              UserDetailsService userDetailsService,
+                              TokenRevocationRegistry revocationRegistry,
+                              @Value("${app.auth.token-cache.max-entries:10000}") int maxEntries,
+                              MeterRegistry meterRegistry) {
+        this.tokenProvider = tokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.revocationRegistry = revocationRegistry;
+        this.cache = new BoundedCache<>("verified-tokens", maxEntries);
+        cache.bindTo(meterRegistry);
+    }
+
+    /**
+     * The user a token authenticates, or null if the token is invalid, expired or signed out.
+     */
+    public UserDetails authenticate(String token) {
+        String key = digest(token);
+        Entry entry = cache.get(key);
+        long now = System.currentTimeMillis();
+        if (entry != null) {
+            if (entry.expiresAt > now && !revocationRegistry.isRevoked(entry.tokenId)) {
+                return entry.principal;
+            }
+            cache.remove(key);
+            return null;
+        }
+
+        Claims claims = tokenProvider.parseClaims(token);
+        if (claims == null) {
+            return null;
+        }
+        // Current tokens carry the principal; older ones still need the user lookup
+        UserDetails principal = tokenProvider.getPrincipal(claims);
+        if (principal == null) {
+            principal = userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        if (claims.getExpiration() != null) {
+            cache.put(key, new Entry(principal, claims.getId(), claims.getExpiration().getTime()));
+        }
+        return principal;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+        private final UserDetails principal;
+        private final String tokenId;
+        private final long expiresAt;
+
+        Entry(UserDetails principal, String tokenId, long expiresAt) {
+            this.principal = principal;
+            this.tokenId = tokenId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -10,10 +10,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -25,12 +21,10 @@ public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
     private static final String TOKEN_HEADER = "X-Authorization";
     private static final String TOKEN_PREFIX = "Bearer ";
 
-    private final JwtDecoder jwtDecoder;
-    private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
-    public WebSocketAuthChannelInterceptor(JwtDecoder jwtDecoder, UserDetailsService userDetailsService) {
-        this.jwtDecoder = jwtDecoder;
-        this.userDetailsService = userDetailsService;
+    public WebSocketAuthChannelInterceptor(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @Override
@@ -50,35 +44,26 @@ public class WebSocketAuthChannelInterceptor implements ChannelInterceptor {
             }
 
             if (token != null) {
-                try {
-                    // Validate the token
-                    Jwt jwt = jwtDecoder.decode(token);
-                    
-                    // Extract user identity from the token
-                    String username = jwt.getSubject();
-                    
-                    if (username != null) {
-                        // Load user details
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                        
-                        // Create authentication object
-                        UsernamePasswordAuthenticationToken authentication = 
-                            new UsernamePasswordAuthenticationToken(
-                                userDetails, 
-                                null, 
-                                userDetails.getAuthorities()
-                            );
-                        
-                        // Set the authentication in the SecurityContext
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        
-                        // Set the user in the session
-                        accessor.setUser(authentication);
-                    }
-                } catch (JwtException e) {
+                // Validate the token, reusing the result of an earlier verification
+                UserDetails userDetails = verifiedTokenCache.authenticate(token);
+                if (userDetails == null) {
                     // Token validation failed
                     throw new RuntimeException("Invalid JWT token");
                 }
+
+                // Create authentication object
+                UsernamePasswordAuthenticationToken authentication = 
+                    new UsernamePasswordAuthenticationToken(
+                        userDetails, 
+                        null, 
+                        userDetails.getAuthorities()
+                    );
+                
+                // Set the authentication in the SecurityContext
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                
+                // Set the user in the session
+                accessor.setUser(authentication);
             } else {
                 // No token provided
                 throw new RuntimeException("No JWT token found");
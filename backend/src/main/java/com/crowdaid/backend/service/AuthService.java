@@ -5,8 +5,10 @@ import com.crowdaid.backend.dto.LoginRequest;
 import com.crowdaid.backend.dto.SignUpRequest;
 import org.springframework.http.ResponseEntity;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthService {
-    ResponseEntity<?> authenticateUser(LoginRequest loginRequest);
-    ResponseEntity<?> registerUser(SignUpRequest signUpRequest);
-    ResponseEntity<?> logoutUser();
+    CompletableFuture<ResponseEntity<?>> authenticateUser(LoginRequest loginRequest);
+    CompletableFuture<ResponseEntity<?>> registerUser(SignUpRequest signUpRequest);
+    ResponseEntity<?> logoutUser(String token);
 }
@@ -1,5 +1,6 @@
 package com.crowdaid.backend.service;
 
+import com.crowdaid.backend.cache.UserIdentityFilter;
 import com.crowdaid.backend.dto.*;
 import com.crowdaid.backend.exception.AppException;
 import com.crowdaid.backend.model.Role;
@@ -8,21 +9,24 @@ import com.crowdaid.backend.model.User;
 import com.crowdaid.backend.repository.RoleRepository;
 import com.crowdaid.backend.repository.UserRepository;
 import com.crowdaid.backend.security.JwtTokenProvider;
+import com.crowdaid.backend.security.PasswordHashingExecutor;
+import com.crowdaid.backend.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthServiceImpl implements AuthService {
@@ -42,48 +46,51 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     JwtTokenProvider tokenProvider;
 
+    @Autowired
+    PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    UserIdentityFilter userIdentityFilter;
+
     @Override
-    public ResponseEntity<?> authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(LoginRequest loginRequest) {
+        // The password check runs BCrypt, so it goes to the hashing pool
+        return passwordHashingExecutor.submit(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginRequest.getUsernameOrEmail(),
                         loginRequest.getPassword()
                 )
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        String jwt = tokenProvider.generateToken(authentication);
-        User user = userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail(), 
-                loginRequest.getUsernameOrEmail())
-                .orElseThrow(() -> new AppException("User not found with username or email : " + 
-                        loginRequest.getUsernameOrEmail()));
-
-        return ResponseEntity.ok(new JwtAuthenticationResponse(
-                jwt, 
-                user.getId(),
-                user.getUsername(),
-                user.getEmail()
-        ));
+        )).thenApply(authentication -> {
+            String jwt = tokenProvider.generateToken(authentication);
+            // The authenticated principal already holds the user loaded for the password check
+            UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+
+            return ResponseEntity.ok(new JwtAuthenticationResponse(
+                    jwt, 
+                    user.getId(),
+                    user.getUsername(),
+                    user.getEmail()
+            ));
+        });
     }
 
     @Override
-    public ResponseEntity<?> registerUser(SignUpRequest signUpRequest) {
-        if(userRepository.existsByUsername(signUpRequest.getUsername())) {
-            return new ResponseEntity<>(new ApiResponse(false, "Username is already taken!"),
-                    HttpStatus.BAD_REQUEST);
+    public CompletableFuture<ResponseEntity<?>> registerUser(SignUpRequest signUpRequest) {
+        // The filters answer most of these without a query
+        if(userIdentityFilter.isUsernameTaken(signUpRequest.getUsername())) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(
+                    new ApiResponse(false, "Username is already taken!"), HttpStatus.BAD_REQUEST));
         }
 
-        if(userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return new ResponseEntity<>(new ApiResponse(false, "Email Address already in use!"),
-                    HttpStatus.BAD_REQUEST);
+        if(userIdentityFilter.isEmailTaken(signUpRequest.getEmail())) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(
+                    new ApiResponse(false, "Email Address already in use!"), HttpStatus.BAD_REQUEST));
         }
 
         // Creating user's account
         User user = new User(signUpRequest.getName(), signUpRequest.getUsername(),
                 signUpRequest.getEmail(), signUpRequest.getPassword());
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
         user.setPhoneNumber(signUpRequest.getPhoneNumber());
         user.setAddress(signUpRequest.getAddress());
         user.setLatitude(signUpRequest.getLatitude());
@@ -117,17 +124,27 @@ public class AuthServiceImpl implements AuthService {
         }
         
         user.setRoles(roles);
-        User result = userRepository.save(user);
 
+        // Built here because the request context is not available on the hashing pool
         URI location = ServletUriComponentsBuilder
                 .fromCurrentContextPath().path("/api/users/{username}")
-                .buildAndExpand(result.getUsername()).toUri();
-
-        return ResponseEntity.created(location).body(new ApiResponse(true, "User registered successfully"));
+                .buildAndExpand(user.getUsername()).toUri();
+
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(user.getPassword()))
+                .thenApply(encodedPassword -> {
+                    user.setPassword(encodedPassword);
+                    userRepository.save(user);
+                    userIdentityFilter.add(user.getUsername(), user.getEmail());
+                    return ResponseEntity.created(location).body(new ApiResponse(true, "User registered successfully"));
+                });
     }
 
     @Override
-    public ResponseEntity<?> logoutUser() {
+    public ResponseEntity<?> logoutUser(String token) {
+        // Tokens are stateless, so signing out means rejecting this one until it expires
+        if (StringUtils.hasText(token)) {
+            tokenProvider.revokeToken(token);
+        }
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok(new ApiResponse(true, "Logout successful"));
     }
@@ -1,7 +1,10 @@
 package com.crowdaid.backend.service;
 
+import com.crowdaid.backend.dto.ClusterResponse;
+import com.crowdaid.backend.dto.CursorPage;
 import com.crowdaid.backend.dto.HelpRequestRequest;
 import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.dto.PinColumns;
 import com.crowdaid.backend.security.UserPrincipal;
 import org.springframework.http.ResponseEntity;
 
@@ -10,8 +13,15 @@ import java.util.List;
 public interface HelpRequestService {
     HelpRequestResponse createHelpRequest(HelpRequestRequest helpRequestRequest, UserPrincipal currentUser);
     HelpRequestResponse getHelpRequestById(Long id, UserPrincipal currentUser);
-    List<HelpRequestResponse> getUserHelpRequests(UserPrincipal currentUser);
+    List<HelpRequestResponse> getUserHelpRequests(String status, UserPrincipal currentUser);
+    CursorPage<HelpRequestResponse> getUserHelpRequestPage(String status, int limit, String cursor,
+                                                           UserPrincipal currentUser);
     List<HelpRequestResponse> getNearbyHelpRequests(Double lat, Double lng, Double radiusInKm, UserPrincipal currentUser);
+    CursorPage<HelpRequestResponse> getNearestHelpRequests(Double lat, Double lng, Double radiusInKm,
+                                                           int limit, String cursor, UserPrincipal currentUser);
+    List<String> getNearbyCellTopics(Double lat, Double lng, Double radiusInKm);
+    ClusterResponse getClusters(String bbox, int zoom);
+    PinColumns getPins(String bbox, String statuses);
     HelpRequestResponse acceptHelpRequest(Long id, UserPrincipal currentUser);
     HelpRequestResponse updateHelpRequestStatus(Long id, String status, UserPrincipal currentUser);
     ResponseEntity<?> deleteHelpRequest(Long id, UserPrincipal currentUser);
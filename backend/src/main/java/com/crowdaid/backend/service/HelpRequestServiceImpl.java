@@ -1,29 +1,59 @@
 package com.crowdaid.backend.service;
 
+import com.crowdaid.backend.cache.ParticipantCache;
+import com.crowdaid.backend.dto.ClusterResponse;
+import com.crowdaid.backend.dto.CursorPage;
 import com.crowdaid.backend.dto.HelpRequestRequest;
 import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.dto.HelpRequestStatusUpdate;
+import com.crowdaid.backend.dto.PinColumns;
+import com.crowdaid.backend.event.HelpRequestChangedEvent;
 import com.crowdaid.backend.exception.AppException;
+import com.crowdaid.backend.exception.HelpRequestAlreadyTakenException;
 import com.crowdaid.backend.exception.ResourceNotFoundException;
+import com.crowdaid.backend.geo.ClusterGrid;
+import com.crowdaid.backend.geo.GeoCellTopics;
+import com.crowdaid.backend.geo.GeoMath;
+import com.crowdaid.backend.geo.GeoQueryStrategy;
+import com.crowdaid.backend.geo.GridIndex;
+import com.crowdaid.backend.geo.HaversineKernel;
+import com.crowdaid.backend.geo.NearbyCandidateCache;
+import com.crowdaid.backend.geo.NearbyCursor;
+import com.crowdaid.backend.geo.PendingRequestIndex;
 import com.crowdaid.backend.model.HelpRequest;
 import com.crowdaid.backend.model.User;
 import com.crowdaid.backend.repository.HelpRequestRepository;
 import com.crowdaid.backend.repository.UserRepository;
+import com.crowdaid.backend.repository.projection.HelpRequestDistance;
+import com.crowdaid.backend.repository.projection.HelpRequestPin;
 import com.crowdaid.backend.security.UserPrincipal;
+import com.crowdaid.backend.websocket.NotificationOutbox;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class HelpRequestServiceImpl implements HelpRequestService {
 
-    private static final double EARTH_RADIUS_KM = 6371.0;
     private static final double DEFAULT_RADIUS_KM = 10.0; // Default 10km radius
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_PINS = 20000;
+    private static final List<HelpRequest.Status> ALL_STATUSES = Arrays.asList(HelpRequest.Status.values());
 
     @Autowired
     private HelpRequestRepository helpRequestRepository;
@@ -31,6 +61,30 @@ public class HelpRequestServiceImpl implements HelpRequestService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PendingRequestIndex pendingRequestIndex;
+
+    @Autowired
+    private NearbyCandidateCache nearbyCandidateCache;
+
+    @Autowired
+    private GeoCellTopics geoCellTopics;
+
+    @Autowired
+    private ClusterGrid clusterGrid;
+
+    @Autowired
+    private ParticipantCache participantCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Value("${app.geo.query-strategy:BOUNDING_BOX}")
+    private GeoQueryStrategy queryStrategy;
+
     @Override
     @Transactional
     public HelpRequestResponse createHelpRequest(HelpRequestRequest helpRequestRequest, UserPrincipal currentUser) {
@@ -46,36 +100,56 @@ public class HelpRequestServiceImpl implements HelpRequestService {
         helpRequest.setStatus(HelpRequest.Status.PENDING);
 
         HelpRequest savedHelpRequest = helpRequestRepository.save(helpRequest);
-        return new HelpRequestResponse(savedHelpRequest);
+        HelpRequestResponse response = new HelpRequestResponse(savedHelpRequest);
+        eventPublisher.publishEvent(HelpRequestChangedEvent.created(response));
+        return response;
     }
 
     @Override
     @Transactional(readOnly = true)
     public HelpRequestResponse getHelpRequestById(Long id, UserPrincipal currentUser) {
-        HelpRequest helpRequest = helpRequestRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", id));
-
         // Check if the current user is the requester or the assigned volunteer
-        if (!helpRequest.getRequester().getId().equals(currentUser.getId()) &&
-            (helpRequest.getVolunteer() == null || !helpRequest.getVolunteer().getId().equals(currentUser.getId()))) {
+        if (!participantCache.get(id).includes(currentUser.getId())) {
             throw new AppException("You don't have permission to view this help request");
         }
 
+        HelpRequest helpRequest = helpRequestRepository.findWithParticipantsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", id));
+
         return new HelpRequestResponse(helpRequest);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<HelpRequestResponse> getUserHelpRequests(UserPrincipal currentUser) {
-        User user = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", currentUser.getId()));
-
-        List<HelpRequest> helpRequests = helpRequestRepository.findUserRequests(user);
-        return helpRequests.stream()
+    public List<HelpRequestResponse> getUserHelpRequests(String status, UserPrincipal currentUser) {
+        return findUserRequestsPage(currentUser.getId(), parseStatuses(status, ALL_STATUSES), null, Integer.MAX_VALUE)
+                .stream()
                 .map(HelpRequestResponse::new)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<HelpRequestResponse> getUserHelpRequestPage(String status, int limit, String cursor,
+                                                                  UserPrincipal currentUser) {
+        if (limit < 1) {
+            throw new AppException("Limit must be at least 1");
+        }
+
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        List<HelpRequest> helpRequests = findUserRequestsPage(currentUser.getId(),
+                parseStatuses(status, ALL_STATUSES), CreatedAtCursor.decode(cursor), pageSize);
+
+        String nextCursor = null;
+        if (helpRequests.size() == pageSize) {
+            HelpRequest last = helpRequests.get(helpRequests.size() - 1);
+            nextCursor = new CreatedAtCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(helpRequests.stream()
+                .map(HelpRequestResponse::new)
+                .collect(Collectors.toList()), nextCursor);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<HelpRequestResponse> getNearbyHelpRequests(Double lat, Double lng, Double radiusInKm, UserPrincipal currentUser) {
@@ -86,110 +160,285 @@ public class HelpRequestServiceImpl implements HelpRequestService {
         // If radius is not provided, use the default
         double radius = radiusInKm != null ? radiusInKm : DEFAULT_RADIUS_KM;
 
-        // Calculate bounding box coordinates for the search area
-        double[] boundingBox = calculateBoundingBox(lat, lng, radius);
-        
-        // Get pending requests within the bounding box
-        List<HelpRequest> nearbyRequests = helpRequestRepository.findNearbyPendingRequests(
-                boundingBox[0], boundingBox[1], boundingBox[2], boundingBox[3]);
+        // Serve from the resident index once it has been loaded
+        if (pendingRequestIndex.isReady()) {
+            return pendingRequestIndex.findWithin(lat, lng, radius);
+        }
 
-        // Filter by distance and map to response DTOs
-        return nearbyRequests.stream()
-                .filter(request -> calculateDistance(lat, lng, request.getLatitude(), request.getLongitude()) <= radius)
-                .map(HelpRequestResponse::new)
+        // Get pending candidates around the point, shared between nearby volunteers when cacheable
+        List<HelpRequestResponse> candidates;
+        if (nearbyCandidateCache.isCacheable(radius)) {
+            candidates = nearbyCandidateCache.getCandidates(lat, lng, radius, this::findPendingInBox);
+        } else {
+            candidates = findPendingCandidates(lat, lng, radius, GeoMath.boundingBox(lat, lng, radius)).stream()
+                    .map(HelpRequestResponse::new)
+                    .collect(Collectors.toList());
+        }
+
+        // Filter by distance
+        HaversineKernel kernel = new HaversineKernel(lat, lng, radius);
+        return candidates.stream()
+                .filter(request -> kernel.contains(request.getLatitude(), request.getLongitude()))
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional
-    public HelpRequestResponse acceptHelpRequest(Long id, UserPrincipal currentUser) {
-        HelpRequest helpRequest = helpRequestRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", id));
+    @Transactional(readOnly = true)
+    public CursorPage<HelpRequestResponse> getNearestHelpRequests(Double lat, Double lng, Double radiusInKm,
+                                                                  int limit, String cursor, UserPrincipal currentUser) {
+        if (lat == null || lng == null) {
+            throw new AppException("Latitude and longitude are required");
+        }
+        if (limit < 1) {
+            throw new AppException("Limit must be at least 1");
+        }
+
+        double radius = radiusInKm != null ? radiusInKm : DEFAULT_RADIUS_KM;
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        NearbyCursor after = NearbyCursor.decode(cursor);
+
+        List<HelpRequestResponse> page = new ArrayList<>(pageSize);
+        if (pendingRequestIndex.isReady()) {
+            for (GridIndex.Neighbor<HelpRequestResponse> neighbor :
+                    pendingRequestIndex.nearest(lat, lng, radius, after, pageSize)) {
+                page.add(neighbor.getValue().withDistance(neighbor.getDistanceKm()));
+            }
+        } else {
+            double[] boundingBox = GeoMath.boundingBox(lat, lng, radius);
+            List<HelpRequestDistance> distances = helpRequestRepository.findNearestPendingRequests(
+                    lat, lng, radius, boundingBox[0], boundingBox[1], boundingBox[2], boundingBox[3],
+                    after != null ? after.getDistanceKm() : -1,
+                    after != null ? after.getId() : Long.MIN_VALUE,
+                    pageSize);
+
+            // Load the page in one query and restore the distance order
+            Map<Long, HelpRequest> requestsById = findWithParticipants(
+                    distances.stream().map(HelpRequestDistance::getId).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(HelpRequest::getId, Function.identity()));
+            for (HelpRequestDistance distance : distances) {
+                HelpRequest request = requestsById.get(distance.getId());
+                if (request != null) {
+                    page.add(new HelpRequestResponse(request).withDistance(distance.getDistanceKm()));
+                }
+            }
+        }
+
+        String nextCursor = null;
+        if (page.size() == pageSize) {
+            HelpRequestResponse last = page.get(page.size() - 1);
+            nextCursor = new NearbyCursor(last.getDistanceKm(), last.getId()).encode();
+        }
+        return new CursorPage<>(page, nextCursor);
+    }
+
+    @Override
+    public List<String> getNearbyCellTopics(Double lat, Double lng, Double radiusInKm) {
+        if (lat == null || lng == null) {
+            throw new AppException("Latitude and longitude are required");
+        }
+        double radius = radiusInKm != null ? radiusInKm : DEFAULT_RADIUS_KM;
+        return geoCellTopics.topicsCovering(lat, lng, radius);
+    }
 
-        // Check if the help request is already accepted
-        if (helpRequest.getStatus() != HelpRequest.Status.PENDING) {
-            throw new AppException("This help request is no longer available");
+    @Override
+    public ClusterResponse getClusters(String bbox, int zoom) {
+        double[] box = parseBoundingBox(bbox);
+        return clusterGrid.clusters(box[1], box[0], box[3], box[2], zoom);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PinColumns getPins(String bbox, String statuses) {
+        double[] box = parseBoundingBox(bbox);
+        List<HelpRequest.Status> statusFilter = parseStatuses(statuses, HelpRequest.OPEN_STATUSES);
+        PageRequest limit = PageRequest.of(0, MAX_PINS + 1);
+
+        List<HelpRequestPin> pins;
+        if (box[0] <= box[2]) {
+            pins = findPinsInBox(statusFilter, new double[]{box[1], box[3], box[0], box[2]}, limit);
+        } else {
+            // The viewport crosses the antimeridian: query both sides
+            pins = new ArrayList<>(findPinsInBox(statusFilter, new double[]{box[1], box[3], box[0], 180}, limit));
+            pins.addAll(findPinsInBox(statusFilter, new double[]{box[1], box[3], -180, box[2]}, limit));
         }
 
+        int count = Math.min(pins.size(), MAX_PINS);
+        PinColumns columns = new PinColumns(count);
+        long now = Instant.now().getEpochSecond();
+        for (int i = 0; i < count; i++) {
+            HelpRequestPin pin = pins.get(i);
+            int age = pin.getCreatedAt() != null ? (int) Math.max(0, now - pin.getCreatedAt().getEpochSecond()) : 0;
+            columns.add(pin.getId(), pin.getLatitude(), pin.getLongitude(), pin.getStatus(), age);
+        }
+        columns.setTruncated(pins.size() > MAX_PINS);
+        return columns;
+    }
+
+    @Override
+    @Transactional
+    public HelpRequestResponse acceptHelpRequest(Long id, UserPrincipal currentUser) {
         // Check if the current user is a volunteer
         if (!currentUser.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_VOLUNTEER"))) {
             throw new AppException("Only volunteers can accept help requests");
         }
 
-        User volunteer = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", currentUser.getId()));
+        // Claim the request in a single conditional UPDATE so concurrent accepts have exactly one winner
+        User volunteer = userRepository.getReferenceById(currentUser.getId());
+        int updated = helpRequestRepository.assignVolunteerIfStatus(
+                id, volunteer, HelpRequest.Status.PENDING, HelpRequest.Status.ACCEPTED, Instant.now());
+        if (updated == 0) {
+            if (!helpRequestRepository.existsById(id)) {
+                throw new ResourceNotFoundException("HelpRequest", "id", id);
+            }
+            throw new HelpRequestAlreadyTakenException(id);
+        }
 
-        helpRequest.setVolunteer(volunteer);
-        helpRequest.setStatus(HelpRequest.Status.ACCEPTED);
-        
-        HelpRequest updatedRequest = helpRequestRepository.save(helpRequest);
-        return new HelpRequestResponse(updatedRequest);
+        HelpRequest acceptedRequest = helpRequestRepository.findWithParticipantsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", id));
+        HelpRequestResponse response = new HelpRequestResponse(acceptedRequest);
+        eventPublisher.publishEvent(HelpRequestChangedEvent.statusChanged(response, HelpRequest.Status.PENDING));
+        notificationOutbox.append("/topic/request/" + id, HelpRequestStatusUpdate.of(response));
+        return response;
     }
 
     @Override
     @Transactional
     public HelpRequestResponse updateHelpRequestStatus(Long id, String status, UserPrincipal currentUser) {
-        HelpRequest helpRequest = helpRequestRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", id));
-
         // Check if the current user is the requester or the assigned volunteer
-        if (!helpRequest.getRequester().getId().equals(currentUser.getId()) &&
-            (helpRequest.getVolunteer() == null || !helpRequest.getVolunteer().getId().equals(currentUser.getId()))) {
+        if (!participantCache.get(id).includes(currentUser.getId())) {
             throw new AppException("You don't have permission to update this help request");
         }
 
+        HelpRequest.Status newStatus;
         try {
-            HelpRequest.Status newStatus = HelpRequest.Status.valueOf(status.toUpperCase());
-            helpRequest.setStatus(newStatus);
-            HelpRequest updatedRequest = helpRequestRepository.save(helpRequest);
-            return new HelpRequestResponse(updatedRequest);
+            newStatus = HelpRequest.Status.valueOf(status.toUpperCase());
         } catch (IllegalArgumentException e) {
             throw new AppException("Invalid status: " + status);
         }
+
+        HelpRequest helpRequest = helpRequestRepository.findWithParticipantsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", id));
+
+        HelpRequest.Status previousStatus = helpRequest.getStatus();
+        helpRequest.setStatus(newStatus);
+        HelpRequest updatedRequest = helpRequestRepository.save(helpRequest);
+        HelpRequestResponse response = new HelpRequestResponse(updatedRequest);
+        eventPublisher.publishEvent(HelpRequestChangedEvent.statusChanged(response, previousStatus));
+        notificationOutbox.append("/topic/request/" + id, HelpRequestStatusUpdate.of(response));
+        return response;
     }
 
     @Override
     @Transactional
     public ResponseEntity<?> deleteHelpRequest(Long id, UserPrincipal currentUser) {
-        HelpRequest helpRequest = helpRequestRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", id));
-
         // Only the requester can delete the help request
-        if (!helpRequest.getRequester().getId().equals(currentUser.getId())) {
+        if (!participantCache.get(id).isRequester(currentUser.getId())) {
             throw new AppException("You don't have permission to delete this help request");
         }
 
+        HelpRequest helpRequest = helpRequestRepository.findWithParticipantsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", id));
+
+        HelpRequestResponse snapshot = new HelpRequestResponse(helpRequest);
         helpRequestRepository.delete(helpRequest);
+        eventPublisher.publishEvent(HelpRequestChangedEvent.deleted(snapshot));
         return ResponseEntity.ok().build();
     }
 
-    // Helper method to calculate bounding box coordinates for a point and radius
-    private double[] calculateBoundingBox(double lat, double lng, double radiusInKm) {
-        // Convert latitude and longitude from degrees to radians
-        double latRad = Math.toRadians(lat);
-        double lngRad = Math.toRadians(lng);
-        double angularDistance = radiusInKm / EARTH_RADIUS_KM;
+    // Helper method to fetch pending requests around a point with the configured query strategy
+    private List<HelpRequest> findPendingCandidates(double lat, double lng, double radiusInKm, double[] boundingBox) {
+        if (queryStrategy == GeoQueryStrategy.SPATIAL) {
+            String center = String.format(Locale.ROOT, "POINT(%f %f)", lat, lng);
+            return findWithParticipants(helpRequestRepository.findNearbyPendingRequestIdsSpatial(
+                    toEnvelope(boundingBox), center, radiusInKm * 1000));
+        }
+        return helpRequestRepository.findNearbyPendingRequests(
+                boundingBox[0], boundingBox[1], boundingBox[2], boundingBox[3]);
+    }
 
-        // Calculate minimum and maximum latitude
-        double minLat = Math.toDegrees(latRad - angularDistance);
-        double maxLat = Math.toDegrees(latRad + angularDistance);
+    // Helper method to fetch every pending request inside a box, used to fill the candidate cache
+    private List<HelpRequestResponse> findPendingInBox(double[] boundingBox) {
+        List<HelpRequest> requests = queryStrategy == GeoQueryStrategy.SPATIAL
+                ? findWithParticipants(helpRequestRepository.findPendingRequestIdsInEnvelope(toEnvelope(boundingBox)))
+                : helpRequestRepository.findNearbyPendingRequests(
+                        boundingBox[0], boundingBox[1], boundingBox[2], boundingBox[3]);
+        return requests.stream()
+                .map(HelpRequestResponse::new)
+                .collect(Collectors.toList());
+    }
 
-        // Calculate minimum and maximum longitude (compensating for latitude)
-        double deltaLng = Math.asin(Math.sin(angularDistance) / Math.cos(latRad));
-        double minLng = Math.toDegrees(lngRad - deltaLng);
-        double maxLng = Math.toDegrees(lngRad + deltaLng);
+    // Helper method to fetch the newest pins in a {minLat, maxLat, minLng, maxLng} box with the configured query strategy
+    private List<HelpRequestPin> findPinsInBox(List<HelpRequest.Status> statuses, double[] boundingBox, PageRequest limit) {
+        if (queryStrategy == GeoQueryStrategy.SPATIAL) {
+            return helpRequestRepository.findPinsInEnvelope(
+                    statuses.stream().map(Enum::name).collect(Collectors.toList()), toEnvelope(boundingBox), limit);
+        }
+        return helpRequestRepository.findPinsInBox(statuses,
+                boundingBox[0], boundingBox[1], boundingBox[2], boundingBox[3], limit);
+    }
 
-        return new double[]{minLat, maxLat, minLng, maxLng};
+    // Helper method to fetch a newest-first page of a user's requests, keeping the id order
+    private List<HelpRequest> findUserRequestsPage(Long userId, List<HelpRequest.Status> statuses,
+                                                   CreatedAtCursor before, int limit) {
+        List<String> statusNames = statuses.stream().map(Enum::name).collect(Collectors.toList());
+        List<Long> ids = before != null
+                ? helpRequestRepository.findUserRequestIds(userId, statusNames, before.getCreatedAt(), before.getId(), limit)
+                : helpRequestRepository.findLatestUserRequestIds(userId, statusNames, limit);
+        Map<Long, HelpRequest> requestsById = findWithParticipants(ids).stream()
+                .collect(Collectors.toMap(HelpRequest::getId, Function.identity()));
+        List<HelpRequest> page = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            HelpRequest request = requestsById.get(id);
+            if (request != null) {
+                page.add(request);
+            }
+        }
+        return page;
     }
 
-    // Helper method to calculate distance between two points using Haversine formula
-    private double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLng = Math.toRadians(lng2 - lng1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                  Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                  Math.sin(dLng / 2) * Math.sin(dLng / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return EARTH_RADIUS_KM * c;
+    // Helper method to load requests by id with their participants, skipping the query for no ids
+    private List<HelpRequest> findWithParticipants(List<Long> ids) {
+        return ids.isEmpty() ? List.of() : helpRequestRepository.findWithParticipantsByIdIn(ids);
+    }
+
+    // Helper method to build a WKT polygon in SRID 4326 (lat lng) axis order
+    private static String toEnvelope(double[] boundingBox) {
+        return String.format(Locale.ROOT,
+                "POLYGON((%1$f %3$f, %2$f %3$f, %2$f %4$f, %1$f %4$f, %1$f %3$f))",
+                boundingBox[0], boundingBox[1], boundingBox[2], boundingBox[3]);
+    }
+
+    // Helper method to parse a comma-separated status filter
+    private static List<HelpRequest.Status> parseStatuses(String statuses, List<HelpRequest.Status> defaults) {
+        if (statuses == null || statuses.isBlank()) {
+            return defaults;
+        }
+        List<HelpRequest.Status> parsed = new ArrayList<>();
+        for (String status : statuses.split(",")) {
+            try {
+                parsed.add(HelpRequest.Status.valueOf(status.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new AppException("Invalid status: " + status);
+            }
+        }
+        return parsed.isEmpty() ? defaults : parsed;
+    }
+
+    // Helper method to parse a "minLng,minLat,maxLng,maxLat" viewport
+    private static double[] parseBoundingBox(String bbox) {
+        String[] parts = bbox != null ? bbox.split(",") : new String[0];
+        if (parts.length != 4) {
+            throw new AppException("Bounding box must be minLng,minLat,maxLng,maxLat");
+        }
+        double[] box = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                box[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new AppException("Invalid bounding box: " + bbox);
+        }
+        return box;
     }
 }
@@ -0,0 +1,11 @@
+package com.crowdaid.backend.service;
+
+/**
+ * How chat messages are persisted, selected with {@code app.messaging.ingest-mode}.
+ */
+public enum MessageIngestMode {
+    // One transaction per message on the caller's thread
+    DIRECT,
+    // Queued and committed in batches by MessageIngestPipeline; the sender is answered after commit
+    GROUP_COMMIT
+}
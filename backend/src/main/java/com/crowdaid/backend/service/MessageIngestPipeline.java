@@ -0,0 +1,217 @@
+package com.crowdaid.backend.service;
+
+import com.crowdaid.backend.dto.MessageResponse;
+import com.crowdaid.backend.event.MessageSentEvent;
+import com.crowdaid.backend.exception.AppException;
+import com.crowdaid.backend.model.Message;
+import com.crowdaid.backend.model.User;
+import com.crowdaid.backend.repository.HelpRequestRepository;
+import com.crowdaid.backend.repository.MessageRepository;
+import com.crowdaid.backend.repository.UserRepository;
+import com.crowdaid.backend.websocket.NotificationOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer for chat messages. Senders enqueue already authorized messages; a single
+ * writer thread drains whatever has accumulated, inserts it in one transaction (the pooled
+ * message ids let Hibernate batch the inserts) together with their notifications in the
+ * outbox, then completes each sender's future. Under load the batches grow on their own, so no artificial
+ * delay is added.
+ */
+@Component
+public class MessageIngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageIngestPipeline.class);
+
+    private final MessageRepository messageRepository;
+    private final UserRepository userRepository;
+    private final HelpRequestRepository helpRequestRepository;
+    private final NotificationOutbox notificationOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageIngestMode mode;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingMessage> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public MessageIngestPipeline(MessageRepository messageRepository,
+                                 UserRepository userRepository,
+                                 HelpRequestRepository helpRequestRepository,
+                                 NotificationOutbox notificationOutbox,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.messaging.ingest-mode:DIRECT}") MessageIngestMode mode,
+                                 @Value("${app.messaging.group-commit.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${app.messaging.group-commit.max-batch-size:200}") int maxBatchSize) {
+        this.messageRepository = messageRepository;
+        this.userRepository = userRepository;
+        this.helpRequestRepository = helpRequestRepository;
+        this.notificationOutbox = notificationOutbox;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mode = mode;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (mode != MessageIngestMode.GROUP_COMMIT || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "message-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Message group-commit pipeline started");
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues a message whose sender has already been checked against the help request.
+     *
+     * @param recipientId the other participant, or null if there is none yet
+     * @return completed with the stored message once its batch has committed
+     */
+    public CompletableFuture<MessageResponse> submit(Long senderId, Long helpRequestId, Long recipientId, String content) {
+        PendingMessage pending = new PendingMessage(senderId, helpRequestId, recipientId, content);
+        if (!running || !queue.offer(pending)) {
+            throw new AppException("Message queue is full, please retry");
+        }
+        return pending.future;
+    }
+
+    private void run() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        // Keep draining after stop() until everything accepted so far is written
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Message writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingMessage> batch) {
+        List<MessageResponse> responses;
+        try {
+            responses = transactionTemplate.execute(status -> persist(batch));
+        } catch (RuntimeException e) {
+            // Fall back to one transaction per message so a single bad row fails on its own
+            logger.warn("Group commit of {} messages failed, retrying individually", batch.size(), e);
+            for (PendingMessage pending : batch) {
+                try {
+                    List<PendingMessage> single = List.of(pending);
+                    complete(single, transactionTemplate.execute(status -> persist(single)));
+                } catch (RuntimeException single) {
+                    pending.future.completeExceptionally(single);
+                }
+            }
+            return;
+        }
+        complete(batch, responses);
+    }
+
+    // Helper method to insert a batch and map the stored rows while the session is still open
+    private List<MessageResponse> persist(List<PendingMessage> batch) {
+        Set<Long> senderIds = new HashSet<>();
+        for (PendingMessage pending : batch) {
+            senderIds.add(pending.senderId);
+        }
+        Map<Long, User> senders = new HashMap<>();
+        for (User sender : userRepository.findAllById(senderIds)) {
+            senders.put(sender.getId(), sender);
+        }
+
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            Message message = new Message();
+            message.setContent(pending.content);
+            message.setSender(senders.get(pending.senderId));
+            message.setHelpRequest(helpRequestRepository.getReferenceById(pending.helpRequestId));
+            messages.add(message);
+        }
+        messageRepository.saveAll(messages);
+        messageRepository.flush();
+
+        List<MessageResponse> responses = new ArrayList<>(messages.size());
+        List<Map.Entry<String, Object>> notifications = new ArrayList<>(2 * messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            MessageResponse response = new MessageResponse(messages.get(i));
+            eventPublisher.publishEvent(new MessageSentEvent(response));
+            responses.add(response);
+
+            notifications.add(Map.entry("/topic/chat/" + response.getHelpRequestId(), response));
+            Long recipientId = batch.get(i).recipientId;
+            if (recipientId != null) {
+                notifications.add(Map.entry("/queue/messages/" + recipientId, response));
+            }
+        }
+        notificationOutbox.appendAll(notifications);
+        return responses;
+    }
+
+    // Helper method to answer the senders once their batch has committed
+    private void complete(List<PendingMessage> batch, List<MessageResponse> responses) {
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(responses.get(i));
+        }
+    }
+
+    private static final class PendingMessage {
+        private final Long senderId;
+        private final Long helpRequestId;
+        private final Long recipientId;
+        private final String content;
+        private final CompletableFuture<MessageResponse> future = new CompletableFuture<>();
+
+        PendingMessage(Long senderId, Long helpRequestId, Long recipientId, String content) {
+            this.senderId = senderId;
+            this.helpRequestId = helpRequestId;
+            this.recipientId = recipientId;
+            this.content = content;
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.crowdaid.backend.service;
 
+import com.crowdaid.backend.dto.ConversationSummary;
+import com.crowdaid.backend.dto.CursorPage;
 import com.crowdaid.backend.dto.MessageRequest;
 import com.crowdaid.backend.dto.MessageResponse;
 import com.crowdaid.backend.security.UserPrincipal;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface MessageService {
     MessageResponse sendMessage(MessageRequest messageRequest, UserPrincipal currentUser);
-    List<MessageResponse> getMessagesByHelpRequestId(Long helpRequestId, UserPrincipal currentUser);
+    CompletableFuture<MessageResponse> submitMessage(MessageRequest messageRequest, UserPrincipal currentUser);
+    CursorPage<MessageResponse> getMessagesByHelpRequestId(Long helpRequestId, Long beforeId, Long afterId,
+                                                           Integer size, UserPrincipal currentUser);
+    List<ConversationSummary> getInbox(UserPrincipal currentUser);
     long getUnreadMessageCount(Long helpRequestId, UserPrincipal currentUser);
     void markMessagesAsRead(Long helpRequestId, UserPrincipal currentUser);
 }
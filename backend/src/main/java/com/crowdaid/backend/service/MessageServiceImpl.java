@@ -1,7 +1,12 @@
 package com.crowdaid.backend.service;
 
+import com.crowdaid.backend.cache.ChatHistoryBuffer;
+import com.crowdaid.backend.cache.ParticipantCache;
+import com.crowdaid.backend.dto.ConversationSummary;
+import com.crowdaid.backend.dto.CursorPage;
 import com.crowdaid.backend.dto.MessageRequest;
 import com.crowdaid.backend.dto.MessageResponse;
+import com.crowdaid.backend.event.MessageSentEvent;
 import com.crowdaid.backend.exception.AppException;
 import com.crowdaid.backend.exception.ResourceNotFoundException;
 import com.crowdaid.backend.model.HelpRequest;
@@ -10,18 +15,32 @@ import com.crowdaid.backend.model.User;
 import com.crowdaid.backend.repository.HelpRequestRepository;
 import com.crowdaid.backend.repository.MessageRepository;
 import com.crowdaid.backend.repository.UserRepository;
+import com.crowdaid.backend.repository.projection.InboxEntry;
+import com.crowdaid.backend.repository.projection.ReadWatermark;
 import com.crowdaid.backend.security.UserPrincipal;
+import com.crowdaid.backend.websocket.NotificationOutbox;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class MessageServiceImpl implements MessageService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int PREVIEW_LENGTH = 140;
+
     @Autowired
     private MessageRepository messageRepository;
 
@@ -32,101 +51,193 @@ public class MessageServiceImpl implements MessageService {
     private HelpRequestRepository helpRequestRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private MessageIngestPipeline ingestPipeline;
+
+    @Autowired
+    private ParticipantCache participantCache;
+
+    @Autowired
+    private ChatHistoryBuffer historyBuffer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.messaging.ingest-mode:DIRECT}")
+    private MessageIngestMode ingestMode;
 
     @Override
     @Transactional
     public MessageResponse sendMessage(MessageRequest messageRequest, UserPrincipal currentUser) {
+        ParticipantCache.Participants participants = requireParticipant(messageRequest.getHelpRequestId(), currentUser);
+
         User sender = userRepository.findById(currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", currentUser.getId()));
 
-        HelpRequest helpRequest = helpRequestRepository.findById(messageRequest.getHelpRequestId())
-                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", messageRequest.getHelpRequestId()));
-
-        // Check if the user is part of this help request (either requester or volunteer)
-        if (!helpRequest.getRequester().getId().equals(currentUser.getId()) &&
-            (helpRequest.getVolunteer() == null || !helpRequest.getVolunteer().getId().equals(currentUser.getId()))) {
-            throw new AppException("You are not part of this help request");
-        }
-
         Message message = new Message();
         message.setContent(messageRequest.getContent());
         message.setSender(sender);
-        message.setHelpRequest(helpRequest);
-        message.setRead(false);
+        message.setHelpRequest(helpRequestRepository.getReferenceById(messageRequest.getHelpRequestId()));
 
         Message savedMessage = messageRepository.save(message);
 
-        // Notify the other participant via WebSocket
-        Long recipientId = helpRequest.getRequester().getId().equals(currentUser.getId()) ?
-                (helpRequest.getVolunteer() != null ? helpRequest.getVolunteer().getId() : null) :
-                helpRequest.getRequester().getId();
+        MessageResponse response = new MessageResponse(savedMessage);
+        eventPublisher.publishEvent(new MessageSentEvent(response));
 
+        // Notify the room and the other participant via WebSocket once this commits
+        notificationOutbox.append("/topic/chat/" + response.getHelpRequestId(), response);
+        Long recipientId = participants.otherThan(currentUser.getId());
         if (recipientId != null) {
-            String destination = "/queue/messages/" + recipientId;
-            messagingTemplate.convertAndSend(destination, new MessageResponse(savedMessage));
+            notificationOutbox.append("/queue/messages/" + recipientId, response);
         }
 
-        return new MessageResponse(savedMessage);
+        return response;
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<MessageResponse> getMessagesByHelpRequestId(Long helpRequestId, UserPrincipal currentUser) {
-        HelpRequest helpRequest = helpRequestRepository.findById(helpRequestId)
-                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", helpRequestId));
+    @Transactional
+    public CompletableFuture<MessageResponse> submitMessage(MessageRequest messageRequest, UserPrincipal currentUser) {
+        if (ingestMode != MessageIngestMode.GROUP_COMMIT) {
+            return CompletableFuture.completedFuture(sendMessage(messageRequest, currentUser));
+        }
+
+        ParticipantCache.Participants participants = requireParticipant(messageRequest.getHelpRequestId(), currentUser);
+        Long recipientId = participants.otherThan(currentUser.getId());
+
+        // Persisted by the group-commit writer, which also queues the notifications
+        return ingestPipeline.submit(currentUser.getId(), messageRequest.getHelpRequestId(), recipientId, messageRequest.getContent());
+    }
+
+    @Override
+    public CursorPage<MessageResponse> getMessagesByHelpRequestId(Long helpRequestId, Long beforeId, Long afterId,
+                                                                  Integer size, UserPrincipal currentUser) {
+        // Deliberately not transactional: the history buffer loads cold rooms with its own query,
+        // and only the watermark update below runs in a transaction
+        if (beforeId != null && afterId != null) {
+            throw new AppException("Use either before or after, not both");
+        }
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1) {
+            throw new AppException("Size must be at least 1");
+        }
+        pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
 
         // Check if the user is part of this help request
-        if (!helpRequest.getRequester().getId().equals(currentUser.getId()) &&
-            (helpRequest.getVolunteer() == null || !helpRequest.getVolunteer().getId().equals(currentUser.getId()))) {
-            throw new AppException("You are not part of this help request");
+        requireParticipant(helpRequestId, currentUser);
+
+        // Serve recent pages of active conversations from memory
+        List<MessageResponse> messages = historyBuffer.findPage(helpRequestId, beforeId, afterId, pageSize);
+        if (messages == null) {
+            messages = findPage(helpRequestId, beforeId, afterId, pageSize);
         }
 
-        // Mark messages as read when they are retrieved
-        markMessagesAsRead(helpRequestId, currentUser);
+        String nextCursor = null;
+        if (messages.size() == pageSize) {
+            // Delta sync continues after the newest message, history before the oldest
+            nextCursor = String.valueOf(messages.get(afterId != null ? messages.size() - 1 : 0).getId());
+        }
 
-        return messageRepository.findByHelpRequestOrderByCreatedAtAsc(helpRequest).stream()
-                .map(MessageResponse::new)
-                .collect(Collectors.toList());
+        // Mark messages as read when they are retrieved, by moving the watermark past this page
+        Long lastId = messages.isEmpty() ? null : messages.get(messages.size() - 1).getId();
+        Map<Long, Long> watermarks = transactionTemplate.execute(
+                status -> advanceReadWatermarks(helpRequestId, currentUser.getId(), lastId));
+
+        long readByMe = watermarks.getOrDefault(currentUser.getId(), 0L);
+        long readByOthers = watermarks.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(currentUser.getId()))
+                .mapToLong(Map.Entry::getValue)
+                .max()
+                .orElse(0L);
+
+        List<MessageResponse> items = new ArrayList<>(messages.size());
+        for (MessageResponse message : messages) {
+            // Own messages are read once the other participant has seen them
+            boolean ownMessage = message.getSender().getId().equals(currentUser.getId());
+            items.add(message.withRead(message.getId() <= (ownMessage ? readByOthers : readByMe)));
+        }
+        return new CursorPage<>(items, nextCursor);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public long getUnreadMessageCount(Long helpRequestId, UserPrincipal currentUser) {
-        HelpRequest helpRequest = helpRequestRepository.findById(helpRequestId)
-                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", helpRequestId));
+    public List<ConversationSummary> getInbox(UserPrincipal currentUser) {
+        List<String> statuses = new ArrayList<>();
+        for (HelpRequest.Status status : HelpRequest.OPEN_STATUSES) {
+            statuses.add(status.name());
+        }
 
-        // Check if the user is part of this help request
-        if (!helpRequest.getRequester().getId().equals(currentUser.getId()) &&
-            (helpRequest.getVolunteer() == null || !helpRequest.getVolunteer().getId().equals(currentUser.getId()))) {
-            throw new AppException("You are not part of this help request");
+        List<ConversationSummary> inbox = new ArrayList<>();
+        for (InboxEntry entry : messageRepository.findInbox(currentUser.getId(), statuses, PREVIEW_LENGTH)) {
+            inbox.add(new ConversationSummary(entry));
         }
+        return inbox;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getUnreadMessageCount(Long helpRequestId, UserPrincipal currentUser) {
+        // Check if the user is part of this help request
+        requireParticipant(helpRequestId, currentUser);
 
-        // Count unread messages where the sender is not the current user
-        return messageRepository.countByHelpRequestAndSenderIdNotAndReadFalse(
-                helpRequest, currentUser.getId());
+        // Count messages from the other participant above the current user's read watermark
+        return messageRepository.countUnread(helpRequestId, currentUser.getId());
     }
 
     @Override
     @Transactional
     public void markMessagesAsRead(Long helpRequestId, UserPrincipal currentUser) {
-        HelpRequest helpRequest = helpRequestRepository.findById(helpRequestId)
-                .orElseThrow(() -> new ResourceNotFoundException("HelpRequest", "id", helpRequestId));
-
         // Check if the user is part of this help request
-        if (!helpRequest.getRequester().getId().equals(currentUser.getId()) &&
-            (helpRequest.getVolunteer() == null || !helpRequest.getVolunteer().getId().equals(currentUser.getId()))) {
-            throw new AppException("You are not part of this help request");
+        requireParticipant(helpRequestId, currentUser);
+
+        // Mark everything up to the newest message as read with a single-row upsert
+        messageRepository.markAllRead(helpRequestId, currentUser.getId());
+    }
+
+    // Helper method to read a page from the database, oldest first
+    private List<MessageResponse> findPage(Long helpRequestId, Long beforeId, Long afterId, int pageSize) {
+        PageRequest limit = PageRequest.of(0, pageSize);
+        List<Message> messages;
+        if (afterId != null) {
+            // Delta sync: messages newer than the last one the client has seen, oldest first
+            messages = messageRepository.findPageAfter(helpRequestId, afterId, limit);
+        } else {
+            // History: the page just before the cursor (or the latest page), returned oldest first
+            messages = new ArrayList<>(messageRepository.findPageBefore(
+                    helpRequestId, beforeId != null ? beforeId : Long.MAX_VALUE, limit));
+            Collections.reverse(messages);
         }
 
-        // Mark all messages from the other participant as read
-        List<Message> unreadMessages = messageRepository.findByHelpRequest(helpRequest).stream()
-                .filter(message -> !message.getSender().getId().equals(currentUser.getId()) && !message.isRead())
-                .peek(message -> message.setRead(true))
-                .collect(Collectors.toList());
+        List<MessageResponse> page = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            page.add(new MessageResponse(message));
+        }
+        return page;
+    }
+
+    // Helper method to read the conversation's watermarks and move the user's up to lastId, if any
+    private Map<Long, Long> advanceReadWatermarks(Long helpRequestId, Long userId, Long lastId) {
+        Map<Long, Long> watermarks = new HashMap<>();
+        for (ReadWatermark watermark : messageRepository.findReadWatermarks(helpRequestId)) {
+            watermarks.put(watermark.getUserId(), watermark.getLastReadMessageId());
+        }
+        if (lastId != null) {
+            messageRepository.advanceReadWatermark(helpRequestId, userId, lastId);
+            watermarks.merge(userId, lastId, Math::max);
+        }
+        return watermarks;
+    }
 
-        if (!unreadMessages.isEmpty()) {
-            messageRepository.saveAll(unreadMessages);
+    // Helper method to check that the user is part of this help request (either requester or volunteer)
+    private ParticipantCache.Participants requireParticipant(Long helpRequestId, UserPrincipal currentUser) {
+        ParticipantCache.Participants participants = participantCache.get(helpRequestId);
+        if (!participants.includes(currentUser.getId())) {
+            throw new AppException("You are not part of this help request");
         }
+        return participants;
     }
 }
@@ -0,0 +1,13 @@
+package com.crowdaid.backend.service;
+
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.dto.VolunteerOffer;
+
+import java.util.Map;
+
+public interface VolunteerMatchingService {
+    /**
+     * Ranks available volunteers near the request, best match first, keyed by volunteer id.
+     */
+    Map<Long, VolunteerOffer> rankVolunteers(HelpRequestResponse helpRequest);
+}
@@ -0,0 +1,127 @@
+package com.crowdaid.backend.service;
+
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.dto.VolunteerOffer;
+import com.crowdaid.backend.event.HelpRequestChangedEvent;
+import com.crowdaid.backend.geo.AvailableVolunteerIndex;
+import com.crowdaid.backend.geo.GridIndex;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.repository.HelpRequestRepository;
+import com.crowdaid.backend.repository.UserRepository;
+import com.crowdaid.backend.repository.projection.UserIdentity;
+import com.crowdaid.backend.repository.projection.VolunteerLoad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class VolunteerMatchingServiceImpl implements VolunteerMatchingService {
+
+    private static final List<HelpRequest.Status> ACTIVE_STATUSES =
+            Arrays.asList(HelpRequest.Status.ACCEPTED, HelpRequest.Status.IN_PROGRESS);
+
+    // Nearest volunteers considered before load is taken into account, per offer sent
+    private static final int CANDIDATES_PER_OFFER = 3;
+
+    @Autowired
+    private AvailableVolunteerIndex availableVolunteerIndex;
+
+    @Autowired
+    private HelpRequestRepository helpRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SimpMessageSendingOperations messagingTemplate;
+
+    @Value("${app.matching.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.matching.radius-km:10}")
+    private double radiusKm;
+
+    @Value("${app.matching.max-offers:5}")
+    private int maxOffers;
+
+    @Value("${app.matching.load-penalty-km:2.0}")
+    private double loadPenaltyKm;
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHelpRequestChanged(HelpRequestChangedEvent event) {
+        if (!enabled || event.getType() != HelpRequestChangedEvent.Type.CREATED) {
+            return;
+        }
+
+        Map<Long, VolunteerOffer> offers = rankVolunteers(event.getHelpRequest());
+        if (offers.isEmpty()) {
+            return;
+        }
+
+        // User destinations reach only the volunteer's own sessions (/user/queue/offers);
+        // STOMP principals are named by username
+        for (UserIdentity volunteer : userRepository.findIdentitiesByIdIn(new ArrayList<>(offers.keySet()))) {
+            messagingTemplate.convertAndSendToUser(volunteer.getUsername(), "/queue/offers", offers.get(volunteer.getId()));
+        }
+    }
+
+    @Override
+    public Map<Long, VolunteerOffer> rankVolunteers(HelpRequestResponse helpRequest) {
+        List<GridIndex.Neighbor<Long>> nearest = availableVolunteerIndex.nearest(
+                helpRequest.getLatitude(), helpRequest.getLongitude(), radiusKm,
+                maxOffers * CANDIDATES_PER_OFFER + 1);
+
+        Long requesterId = helpRequest.getRequester() != null ? helpRequest.getRequester().getId() : null;
+        List<GridIndex.Neighbor<Long>> candidates = new ArrayList<>();
+        for (GridIndex.Neighbor<Long> neighbor : nearest) {
+            if (!neighbor.getValue().equals(requesterId)) {
+                candidates.add(neighbor);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Long> loads = loadsFor(candidates);
+        candidates.sort(Comparator.comparingDouble((GridIndex.Neighbor<Long> neighbor) ->
+                        score(neighbor, loads))
+                .thenComparingLong(GridIndex.Neighbor::getId));
+
+        Map<Long, VolunteerOffer> offers = new LinkedHashMap<>();
+        for (GridIndex.Neighbor<Long> neighbor : candidates.subList(0, Math.min(maxOffers, candidates.size()))) {
+            offers.put(neighbor.getValue(), new VolunteerOffer(helpRequest, neighbor.getDistanceKm()));
+        }
+        return offers;
+    }
+
+    // Helper method to fetch the active assignment count of all candidates in one query
+    private Map<Long, Long> loadsFor(List<GridIndex.Neighbor<Long>> candidates) {
+        List<Long> volunteerIds = new ArrayList<>(candidates.size());
+        for (GridIndex.Neighbor<Long> neighbor : candidates) {
+            volunteerIds.add(neighbor.getValue());
+        }
+
+        Map<Long, Long> loads = new HashMap<>();
+        for (VolunteerLoad load : helpRequestRepository.countByVolunteerIdsAndStatusIn(volunteerIds, ACTIVE_STATUSES)) {
+            loads.put(load.getVolunteerId(), load.getActiveCount());
+        }
+        return loads;
+    }
+
+    // Helper method to rank by distance, with each active assignment costing a fixed distance
+    private double score(GridIndex.Neighbor<Long> neighbor, Map<Long, Long> loads) {
+        return neighbor.getDistanceKm() + loadPenaltyKm * loads.getOrDefault(neighbor.getValue(), 0L);
+    }
+}
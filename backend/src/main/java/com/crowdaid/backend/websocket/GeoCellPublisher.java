@@ -0,0 +1,40 @@
+package com.crowdaid.backend.websocket;
+
+import com.crowdaid.backend.dto.GeoCellDelta;
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.event.HelpRequestChangedEvent;
+import com.crowdaid.backend.geo.GeoCellTopics;
+import com.crowdaid.backend.model.HelpRequest;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Pushes add/remove deltas for pending help requests to the geo-cell topic of their location
+ * once the change has committed.
+ */
+@Component
+public class GeoCellPublisher {
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final GeoCellTopics geoCellTopics;
+
+    public GeoCellPublisher(SimpMessageSendingOperations messagingTemplate, GeoCellTopics geoCellTopics) {
+        this.messagingTemplate = messagingTemplate;
+        this.geoCellTopics = geoCellTopics;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHelpRequestChanged(HelpRequestChangedEvent event) {
+        HelpRequestResponse helpRequest = event.getHelpRequest();
+        boolean wasPending = event.getPreviousStatus() == HelpRequest.Status.PENDING;
+        boolean isPending = event.isPendingAfter();
+        if (wasPending == isPending) {
+            return;
+        }
+
+        String topic = geoCellTopics.topicFor(helpRequest.getLatitude(), helpRequest.getLongitude());
+        GeoCellDelta delta = isPending ? GeoCellDelta.add(helpRequest) : GeoCellDelta.remove(helpRequest);
+        messagingTemplate.convertAndSend(topic, delta);
+    }
+}
@@ -0,0 +1,181 @@
+package com.crowdaid.backend.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox for STOMP notifications. {@link #append} stores the notification in
+ * the caller's transaction, so it exists exactly when the change it announces commits; a
+ * single dispatcher thread then publishes stored rows in id order and deletes them.
+ * <p>
+ * The dispatcher is woken after each commit that appended something and also polls on a fixed
+ * interval, which picks up rows left behind by a crash. It reads a batch, sends it with no
+ * transaction or lock held, and deletes what went out in a short transaction afterwards. Delivery
+ * is at least once: a crash between sending and deleting repeats the batch, so every message
+ * carries a {@value #DEDUP_HEADER} header with the row's event id for clients to drop repeats.
+ */
+@Component
+public class NotificationOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    public static final String DEDUP_HEADER = "dedup-id";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (event_id, destination, payload) VALUES (?, ?, ?)";
+    private static final String SELECT_SQL =
+            "SELECT id, event_id, destination, payload FROM outbox_events ORDER BY id LIMIT ?";
+    private static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public NotificationOutbox(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              SimpMessageSendingOperations messagingTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${app.outbox.batch-size:200}") int batchSize,
+                              @Value("${app.outbox.poll-interval-ms:1000}") long pollIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        dispatcher = new Thread(this::run, "outbox-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeUp.release();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Stores a notification for {@code destination} in the current transaction. It is sent once
+     * the transaction commits and discarded with it on rollback.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String destination, Object payload) {
+        appendAll(List.of(Map.entry(destination, payload)));
+    }
+
+    /**
+     * Same as {@link #append} for several (destination, payload) pairs, in one JDBC batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<Map.Entry<String, Object>> notifications) {
+        List<Object[]> rows = new ArrayList<>(notifications.size());
+        for (Map.Entry<String, Object> notification : notifications) {
+            try {
+                rows.add(new Object[]{UUID.randomUUID().toString(), notification.getKey(),
+                        objectMapper.writeValueAsString(notification.getValue())});
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Notification payload is not serializable", e);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp.release();
+            }
+        });
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                // One pass serves every wake-up that arrived in the meantime
+                wakeUp.drainPermits();
+                int dispatched;
+                do {
+                    dispatched = dispatchBatch();
+                } while (dispatched == batchSize && running);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Outbox dispatch failed", e);
+            }
+        }
+    }
+
+    // Helper method to send the oldest stored notifications and delete the ones that went out;
+    // the broker is only called while no database transaction is open
+    private int dispatchBatch() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_SQL, batchSize);
+        List<Object[]> sent = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Object id = row.get("id");
+            String eventId = (String) row.get("event_id");
+            String destination = (String) row.get("destination");
+            try {
+                JsonNode payload = objectMapper.readTree(String.valueOf(row.get("payload")));
+                messagingTemplate.convertAndSend(destination, payload, Map.of(DEDUP_HEADER, eventId));
+            } catch (JsonProcessingException e) {
+                // Not deliverable on any retry; drop it rather than block the rows behind it
+                logger.error("Dropping unreadable outbox event {} for {}", eventId, destination, e);
+            } catch (RuntimeException e) {
+                // Keep order: leave this row and everything after it for the next pass
+                logger.warn("Failed to publish outbox event {} to {}", eventId, destination, e);
+                break;
+            }
+            sent.add(new Object[]{id});
+        }
+        if (!sent.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DELETE_SQL, sent));
+        }
+        return sent.size() == rows.size() ? rows.size() : 0;
+    }
+}
@@ -0,0 +1,53 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Fills the point columns added in V1_0_2 in primary key ranges, committing after every chunk
+ * so a large table is never locked by one long-running UPDATE.
+ */
+public class V1_0_3__Backfill_location_points extends BaseJavaMigration {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        backfill(connection, "help_requests");
+        backfill(connection, "users");
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        // Run in auto-commit mode so each chunk is its own transaction
+        return false;
+    }
+
+    private void backfill(Connection connection, String table) throws SQLException {
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            resultSet.next();
+            maxId = resultSet.getLong(1);
+        }
+
+        String sql = "UPDATE " + table + " SET location = " +
+                // Same "POINT(lat lng)" WKT as the V1_0_2 triggers and the spatial queries
+                "ST_GeomFromText(CONCAT('POINT(', COALESCE(latitude, 0), ' ', COALESCE(longitude, 0), ')'), 4326) " +
+                "WHERE id > ? AND id <= ? AND location IS NULL";
+        try (PreparedStatement update = connection.prepareStatement(sql)) {
+            for (long from = 0; from < maxId; from += CHUNK_SIZE) {
+                update.setLong(1, from);
+                update.setLong(2, from + CHUNK_SIZE);
+                update.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- Tables that are only reached through JDBC or native queries, so Hibernate does not create
+-- them for the test profile. Mirrors V1_0_7 and V1_0_9 without the MySQL-only options; the
+-- foreign keys are left out so create-drop can still drop the entity tables.
+CREATE TABLE IF NOT EXISTS message_read_watermarks (
+    help_request_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    last_read_message_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (help_request_id, user_id)
+);
+
+-- payload is JSON in MySQL; H2 would store a bound string as a JSON string literal instead
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_id CHAR(36) NOT NULL,
+    destination VARCHAR(255) NOT NULL,
+    payload CHARACTER LARGE OBJECT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    CONSTRAINT uk_outbox_events_event_id UNIQUE (event_id)
+);
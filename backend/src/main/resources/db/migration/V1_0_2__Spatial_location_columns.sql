@@ -0,0 +1,39 @@
+-- Add geographic point columns for spatial lookups (MySQL 8.0+).
+-- Axis order for SRID 4326 is latitude, longitude. Points are built from WKT ("POINT(lat lng)")
+-- in the same form the spatial queries use, so writes and reads cannot disagree on axis order
+-- (POINT(x, y) would take the longitude first).
+ALTER TABLE help_requests ADD COLUMN location POINT SRID 4326 NULL;
+ALTER TABLE users ADD COLUMN location POINT SRID 4326 NULL;
+
+-- Keep the point columns in sync with latitude/longitude on every write.
+-- Users without a known location get POINT(0 0) so the column can be NOT NULL;
+-- spatial queries on users must also filter on latitude IS NOT NULL.
+DELIMITER //
+CREATE TRIGGER trg_help_requests_location_insert BEFORE INSERT ON help_requests
+FOR EACH ROW
+BEGIN
+    SET NEW.location = ST_GeomFromText(CONCAT('POINT(', COALESCE(NEW.latitude, 0), ' ', COALESCE(NEW.longitude, 0), ')'), 4326);
+END //
+
+CREATE TRIGGER trg_help_requests_location_update BEFORE UPDATE ON help_requests
+FOR EACH ROW
+BEGIN
+    IF NOT (NEW.latitude <=> OLD.latitude AND NEW.longitude <=> OLD.longitude) OR NEW.location IS NULL THEN
+        SET NEW.location = ST_GeomFromText(CONCAT('POINT(', COALESCE(NEW.latitude, 0), ' ', COALESCE(NEW.longitude, 0), ')'), 4326);
+    END IF;
+END //
+
+CREATE TRIGGER trg_users_location_insert BEFORE INSERT ON users
+FOR EACH ROW
+BEGIN
+    SET NEW.location = ST_GeomFromText(CONCAT('POINT(', COALESCE(NEW.latitude, 0), ' ', COALESCE(NEW.longitude, 0), ')'), 4326);
+END //
+
+CREATE TRIGGER trg_users_location_update BEFORE UPDATE ON users
+FOR EACH ROW
+BEGIN
+    IF NOT (NEW.latitude <=> OLD.latitude AND NEW.longitude <=> OLD.longitude) OR NEW.location IS NULL THEN
+        SET NEW.location = ST_GeomFromText(CONCAT('POINT(', COALESCE(NEW.latitude, 0), ' ', COALESCE(NEW.longitude, 0), ')'), 4326);
+    END IF;
+END //
+DELIMITER ;
@@ -0,0 +1,7 @@
+-- Every row has been backfilled by V1_0_3, so the point columns can become NOT NULL,
+-- which MySQL requires for a SPATIAL INDEX.
+ALTER TABLE help_requests MODIFY COLUMN location POINT SRID 4326 NOT NULL;
+ALTER TABLE users MODIFY COLUMN location POINT SRID 4326 NOT NULL;
+
+ALTER TABLE help_requests ADD SPATIAL INDEX idx_help_requests_location (location);
+ALTER TABLE users ADD SPATIAL INDEX idx_users_location (location);
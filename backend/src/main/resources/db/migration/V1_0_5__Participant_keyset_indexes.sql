@@ -0,0 +1,8 @@
+-- Composite indexes for keyset pagination of a user's requests, one per participant role.
+-- Each side of the "my requests" UNION is a single backward range scan on one of them.
+CREATE INDEX idx_help_requests_requester_created ON help_requests(requester_id, created_at, id);
+CREATE INDEX idx_help_requests_volunteer_created ON help_requests(volunteer_id, created_at, id);
+
+-- The composites lead with the same columns, so they also serve the foreign keys
+DROP INDEX idx_help_requests_requester_id ON help_requests;
+DROP INDEX idx_help_requests_volunteer_id ON help_requests;
@@ -0,0 +1,5 @@
+-- Chat history is paged by message id within a help request. InnoDB already appends the
+-- primary key to secondary indexes, but spell the key out so the keyset queries in
+-- MessageRepository do not depend on that detail.
+CREATE INDEX idx_messages_help_request_id_id ON messages(help_request_id, id);
+DROP INDEX idx_messages_help_request_id ON messages;
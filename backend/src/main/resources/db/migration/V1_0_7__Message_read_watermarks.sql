@@ -0,0 +1,74 @@
+-- Per-participant read position in a conversation: every message with an id up to
+-- last_read_message_id counts as read by that user. Replaces the per-message is_read flag.
+CREATE TABLE IF NOT EXISTS message_read_watermarks (
+    help_request_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    last_read_message_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (help_request_id, user_id),
+    CONSTRAINT fk_message_read_watermarks_help_request_id FOREIGN KEY (help_request_id) REFERENCES help_requests (id) ON DELETE CASCADE,
+    CONSTRAINT fk_message_read_watermarks_user_id FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Carry over the existing flags: a participant has read everything before the first message
+-- from someone else that is still unread, or the whole conversation if there is none.
+INSERT INTO message_read_watermarks (help_request_id, user_id, last_read_message_id)
+SELECT p.help_request_id, p.user_id,
+       COALESCE(
+           (SELECT MIN(m.id) - 1 FROM messages m
+            WHERE m.help_request_id = p.help_request_id AND m.sender_id <> p.user_id AND m.is_read = FALSE),
+           (SELECT COALESCE(MAX(m.id), 0) FROM messages m WHERE m.help_request_id = p.help_request_id)
+       )
+FROM (
+    SELECT id AS help_request_id, requester_id AS user_id FROM help_requests
+    UNION
+    SELECT id, volunteer_id FROM help_requests WHERE volunteer_id IS NOT NULL
+) p;
+
+ALTER TABLE messages DROP COLUMN is_read;
+
+-- vw_user_conversations (V1_0_1) selected m.is_read; derive it from the recipient's watermark
+CREATE OR REPLACE VIEW vw_user_conversations AS
+SELECT 
+    m.help_request_id,
+    hr.description AS help_request_description,
+    hr.status AS help_request_status,
+    m.sender_id,
+    u1.name AS sender_name,
+    m.content AS last_message,
+    m.created_at AS last_message_at,
+    COALESCE(w.last_read_message_id, 0) >= m.id AS is_read,
+    CASE 
+        WHEN hr.requester_id = m.sender_id THEN hr.volunteer_id
+        ELSE hr.requester_id
+    END AS other_user_id,
+    CASE 
+        WHEN hr.requester_id = m.sender_id THEN u2.name
+        ELSE u3.name
+    END AS other_user_name
+FROM 
+    messages m
+JOIN 
+    help_requests hr ON m.help_request_id = hr.id
+JOIN 
+    users u1 ON m.sender_id = u1.id
+LEFT JOIN 
+    users u2 ON hr.volunteer_id = u2.id
+LEFT JOIN 
+    users u3 ON hr.requester_id = u3.id AND hr.requester_id != m.sender_id
+LEFT JOIN 
+    message_read_watermarks w ON w.help_request_id = m.help_request_id
+        AND w.user_id = CASE WHEN hr.requester_id = m.sender_id THEN hr.volunteer_id ELSE hr.requester_id END
+WHERE 
+    m.id IN (
+        SELECT MAX(id) 
+        FROM messages 
+        GROUP BY help_request_id
+    )
+ORDER BY 
+    m.created_at DESC;
+
+-- Unread counts are a range count above the watermark that skips the reader's own messages;
+-- with sender_id in the key they are answered from the index alone.
+CREATE INDEX idx_messages_help_request_id_id_sender ON messages(help_request_id, id, sender_id);
+DROP INDEX idx_messages_help_request_id_id ON messages;
@@ -0,0 +1,10 @@
+-- Hibernate table generator for message ids. Each instance reserves blocks of 50 ids, so
+-- messages can be inserted in JDBC batches, which IDENTITY columns prevent.
+CREATE TABLE IF NOT EXISTS id_generators (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Start a full allocation block above the highest existing id
+INSERT INTO id_generators (name, next_val)
+SELECT 'messages', COALESCE(MAX(id), 0) + 100 FROM messages;
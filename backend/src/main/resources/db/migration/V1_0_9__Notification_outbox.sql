@@ -0,0 +1,11 @@
+-- STOMP notifications written in the same transaction as the change they announce and
+-- published by the outbox dispatcher after commit. Rows are deleted once sent; event_id
+-- travels with the message so clients can drop redeliveries.
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_id CHAR(36) NOT NULL,
+    destination VARCHAR(255) NOT NULL,
+    payload JSON NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    UNIQUE KEY uk_outbox_events_event_id (event_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,55 @@
+package com.crowdaid.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedValueAsMissing() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        // 1% configured; allow for hash quality and the rounded bit and hash counts
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain("alice")).isFalse();
+    }
+
+    @Test
+    void sizesBitsFromExpectedInsertionsAndRate() {
+        // -n ln(p) / ln(2)^2 is about 9.6 bits per value at 1%, rounded up to whole words
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        assertThat(filter.getBitCount()).isBetween(9585L, 9585L + 64);
+        assertThat(filter.getBitCount() % 64).isZero();
+    }
+}
@@ -0,0 +1,137 @@
+package com.crowdaid.backend.cache;
+
+import com.crowdaid.backend.dto.MessageResponse;
+import com.crowdaid.backend.event.MessageSentEvent;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.model.Message;
+import com.crowdaid.backend.model.User;
+import com.crowdaid.backend.repository.MessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatHistoryBufferTest {
+
+    private static final long ROOM = 1L;
+    private static final int ROOM_CAPACITY = 4;
+
+    private MessageRepository messageRepository;
+    private ChatHistoryBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        messageRepository = mock(MessageRepository.class);
+        buffer = new ChatHistoryBuffer(messageRepository, true, ROOM_CAPACITY, Long.MAX_VALUE, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void servesEveryPageOfAConversationShorterThanTheRoom() {
+        givenStored(1, 2, 3);
+
+        assertThat(ids(buffer.findPage(ROOM, null, null, 2))).containsExactly(2L, 3L);
+        assertThat(ids(buffer.findPage(ROOM, 3L, null, 4))).containsExactly(1L, 2L);
+        assertThat(ids(buffer.findPage(ROOM, null, 0L, 4))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(buffer.findPage(ROOM, null, 3L, 4))).isEmpty();
+        // Loaded once, then answered from memory
+        verify(messageRepository, times(1)).findPageBefore(eq(ROOM), anyLong(), any());
+    }
+
+    @Test
+    void insertsLateCommitsInIdOrderAndIgnoresRedeliveries() {
+        givenStored(1, 2, 4);
+        buffer.findPage(ROOM, null, null, 1);
+
+        send(3);
+        send(4);
+
+        assertThat(ids(buffer.findPage(ROOM, null, null, 4))).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void fullRoomDropsItsOldestMessageAndOnlyAnswersInsideTheWindow() {
+        givenStored(1, 2, 3, 4);
+        buffer.findPage(ROOM, null, null, 1);
+
+        send(5);
+
+        assertThat(ids(buffer.findPage(ROOM, null, null, 4))).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(ids(buffer.findPage(ROOM, null, 2L, 2))).containsExactly(3L, 4L);
+        // Message 1 is no longer held, so these pages have to come from the database
+        assertThat(buffer.findPage(ROOM, 3L, null, 2)).isNull();
+        assertThat(buffer.findPage(ROOM, null, 0L, 2)).isNull();
+    }
+
+    @Test
+    void fullRoomSkipsAMessageOlderThanTheWholeWindow() {
+        givenStored(2, 3, 4, 5);
+        buffer.findPage(ROOM, null, null, 1);
+
+        send(1);
+
+        assertThat(ids(buffer.findPage(ROOM, null, null, 4))).containsExactly(2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void pagesLargerThanTheRoomGoToTheDatabase() {
+        assertThat(buffer.findPage(ROOM, null, null, ROOM_CAPACITY + 1)).isNull();
+        verify(messageRepository, never()).findPageBefore(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void messagesForRoomsNotYetReadAreNotBuffered() {
+        send(1);
+        givenStored(1, 2);
+
+        assertThat(ids(buffer.findPage(ROOM, null, null, 4))).containsExactly(1L, 2L);
+    }
+
+    // Helper method to stub the cold-room query, which returns the newest messages first
+    private void givenStored(long... ids) {
+        List<Message> newestFirst = new ArrayList<>();
+        for (int i = ids.length - 1; i >= 0; i--) {
+            newestFirst.add(message(ids[i]));
+        }
+        when(messageRepository.findPageBefore(eq(ROOM), eq(Long.MAX_VALUE), any())).thenReturn(newestFirst);
+    }
+
+    private void send(long id) {
+        buffer.onMessageSent(new MessageSentEvent(new MessageResponse(message(id))));
+    }
+
+    private static Message message(long id) {
+        User sender = new User("Alice", "alice", "alice@example.com", "password");
+        sender.setId(7L);
+        HelpRequest helpRequest = new HelpRequest();
+        helpRequest.setId(ROOM);
+
+        Message message = new Message();
+        message.setId(id);
+        message.setContent("message " + id);
+        message.setSender(sender);
+        message.setHelpRequest(helpRequest);
+        message.setCreatedAt(Instant.now());
+        return message;
+    }
+
+    private static List<Long> ids(List<MessageResponse> page) {
+        List<Long> ids = new ArrayList<>();
+        for (MessageResponse message : page) {
+            ids.add(message.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,40 @@
+package com.crowdaid.backend.geo;
+
+import com.crowdaid.backend.exception.AppException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeoCellTopicsTest {
+
+    @Test
+    void countsTheCellsItWouldVisit() {
+        GeoGrid grid = new GeoGrid(0.1);
+        double[][] queries = {{52.52, 13.405, 10}, {0, 179.99, 30}, {89.9, 0, 50}, {-45, -120, 300}};
+        for (double[] query : queries) {
+            AtomicLong visited = new AtomicLong();
+            grid.forEachCellWithin(query[0], query[1], query[2], cellKey -> visited.incrementAndGet());
+
+            assertThat(grid.countCellsWithin(query[0], query[1], query[2])).isEqualTo(visited.get());
+        }
+    }
+
+    @Test
+    void coversASmallRadiusWithItsCells() {
+        GeoCellTopics topics = new GeoCellTopics(0.1);
+
+        assertThat(topics.topicsCovering(52.52, 13.405, 5))
+                .contains(topics.topicFor(52.52, 13.405))
+                .allSatisfy(topic -> assertThat(topic).startsWith(GeoCellTopics.TOPIC_PREFIX));
+    }
+
+    @Test
+    void rejectsARadiusWithTooManyCellsBeforeListingThem() {
+        GeoCellTopics topics = new GeoCellTopics(0.1);
+
+        assertThatThrownBy(() -> topics.topicsCovering(0, 0, 20000)).isInstanceOf(AppException.class);
+    }
+}
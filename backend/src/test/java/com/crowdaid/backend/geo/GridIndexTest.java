@@ -0,0 +1,134 @@
+package com.crowdaid.backend.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GridIndexTest {
+
+    @Test
+    void nearestOrdersByDistanceAndPagesAfterCursor() {
+        GridIndex<String> index = new GridIndex<>(new GeoGrid(0.05));
+        index.put(1, 52.520, 13.405, "a");
+        index.put(2, 52.530, 13.405, "b");
+        index.put(3, 52.600, 13.405, "c");
+        index.put(4, 53.500, 13.405, "far");
+
+        List<GridIndex.Neighbor<String>> firstPage = index.nearest(52.520, 13.405, 20, -1, Long.MIN_VALUE, 2);
+        assertThat(firstPage).extracting(GridIndex.Neighbor::getId).containsExactly(1L, 2L);
+
+        GridIndex.Neighbor<String> last = firstPage.get(1);
+        List<GridIndex.Neighbor<String>> secondPage = index.nearest(52.520, 13.405, 20,
+                last.getDistanceKm(), last.getId(), 2);
+        assertThat(secondPage).extracting(GridIndex.Neighbor::getId).containsExactly(3L);
+    }
+
+    @Test
+    void nearestNextToThePoleReturnsEachPointOnce() {
+        GridIndex<Long> index = new GridIndex<>(new GeoGrid(0.05));
+        // Spread around the whole parallel, so the search box wraps every longitude column
+        for (int i = 0; i < 36; i++) {
+            index.put(i, 89.95, -180 + i * 10, (long) i);
+        }
+
+        List<GridIndex.Neighbor<Long>> hits = index.nearest(89.99, 0, 50, -1, Long.MIN_VALUE, 100);
+
+        Set<Long> ids = new HashSet<>();
+        hits.forEach(hit -> ids.add(hit.getId()));
+        assertThat(hits).hasSize(36);
+        assertThat(ids).hasSize(36);
+    }
+
+    @Test
+    void nearestFindsTheClosestPointAcrossThePole() {
+        GridIndex<String> index = new GridIndex<>(new GeoGrid(0.05));
+        // 11km away over the pole but half the grid's columns away
+        index.put(1, 89.95, 180, "across");
+        index.put(2, 89.80, 0, "same side");
+
+        List<GridIndex.Neighbor<String>> hits = index.nearest(89.95, 0, 50, -1, Long.MIN_VALUE, 1);
+
+        assertThat(hits).extracting(GridIndex.Neighbor::getId).containsExactly(1L);
+    }
+
+    @Test
+    void pagingNextToThePoleMatchesAFullScan() {
+        GridIndex<Long> index = new GridIndex<>(new GeoGrid(0.05));
+        Random random = new Random(3);
+        for (long id = 0; id < 2000; id++) {
+            index.put(id, 89.5 + random.nextDouble() * 0.5, random.nextDouble() * 360 - 180, id);
+        }
+        List<Long> expected = index.findWithin(89.95, 0, 60);
+        Map<Long, Double> distances = new HashMap<>();
+        index.nearest(89.95, 0, 60, -1, Long.MIN_VALUE, expected.size())
+                .forEach(hit -> distances.put(hit.getId(), hit.getDistanceKm()));
+        assertThat(distances.keySet()).containsExactlyInAnyOrderElementsOf(expected);
+        expected.sort(Comparator.<Long>comparingDouble(distances::get).thenComparingLong(id -> id));
+
+        List<Long> paged = new ArrayList<>();
+        double afterDistance = -1;
+        long afterId = Long.MIN_VALUE;
+        List<GridIndex.Neighbor<Long>> page;
+        do {
+            page = index.nearest(89.95, 0, 60, afterDistance, afterId, 25);
+            for (GridIndex.Neighbor<Long> hit : page) {
+                paged.add(hit.getId());
+                afterDistance = hit.getDistanceKm();
+                afterId = hit.getId();
+            }
+        } while (page.size() == 25);
+
+        assertThat(expected).hasSizeGreaterThan(100);
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void nearestAcrossTheAntimeridianFindsBothSides() {
+        GridIndex<String> index = new GridIndex<>(new GeoGrid(0.05));
+        index.put(1, 0.0, 179.99, "east");
+        index.put(2, 0.0, -179.99, "west");
+
+        List<GridIndex.Neighbor<String>> hits = index.nearest(0.0, 180.0, 10, -1, Long.MIN_VALUE, 10);
+
+        assertThat(hits).extracting(GridIndex.Neighbor::getId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void findWithinMatchesOnlyPointsInsideTheRadius() {
+        GridIndex<String> index = new GridIndex<>(new GeoGrid(0.05));
+        index.put(1, 48.8566, 2.3522, "paris");
+        index.put(2, 48.9000, 2.3522, "north");
+        index.put(3, 51.5074, -0.1278, "london");
+
+        assertThat(index.findWithin(48.8566, 2.3522, 10)).containsExactlyInAnyOrder("paris", "north");
+
+        index.remove(2);
+        assertThat(index.findWithin(48.8566, 2.3522, 10)).containsExactly("paris");
+    }
+
+    @Test
+    void radiusWiderThanTheIndexScansTheOccupiedCellsOnly() {
+        GridIndex<String> index = new GridIndex<>(new GeoGrid(0.05));
+        index.put(1, 48.8566, 2.3522, "paris");
+        index.put(2, -33.8688, 151.2093, "sydney");
+        index.put(3, 40.7128, -74.0060, "new york");
+
+        // Half the circumference covers the whole globe, about 26 million cells at this size
+        assertThat(index.getGrid().countCellsWithin(48.8566, 2.3522, 20_000)).isGreaterThan(index.size());
+        assertThat(index.findWithin(48.8566, 2.3522, 20_000)).containsExactlyInAnyOrder("paris", "sydney", "new york");
+        assertThat(index.findWithin(48.8566, 2.3522, 6_000)).containsExactlyInAnyOrder("paris", "new york");
+        assertThat(index.nearest(48.8566, 2.3522, 20_000, -1, Long.MIN_VALUE, 2))
+                .extracting(GridIndex.Neighbor::getId).containsExactly(1L, 3L);
+        assertThat(index.nearest(48.8566, 2.3522, 20_000, 0, 1, 10))
+                .extracting(GridIndex.Neighbor::getId).containsExactly(3L, 2L);
+    }
+}
@@ -0,0 +1,110 @@
+package com.crowdaid.backend.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HaversineKernelTest {
+
+    @Test
+    void matchesTheTextbookHaversineForHits() {
+        // Berlin to Potsdam, about 27km
+        HaversineKernel kernel = new HaversineKernel(52.520, 13.405, 50);
+
+        assertThat(kernel.distanceWithin(52.390, 13.065)).isCloseTo(haversine(52.520, 13.405, 52.390, 13.065), within(1e-9));
+        assertThat(kernel.distanceWithin(52.520, 13.405)).isZero();
+    }
+
+    @Test
+    void agreesWithTheTextbookHaversineOnRandomCandidates() {
+        Random random = new Random(42);
+        for (int query = 0; query < 50; query++) {
+            double lat = random.nextDouble() * 170 - 85;
+            double lng = random.nextDouble() * 360 - 180;
+            double radiusKm = 1 + random.nextDouble() * 1000;
+            HaversineKernel kernel = new HaversineKernel(lat, lng, radiusKm);
+
+            for (int i = 0; i < 2000; i++) {
+                double lat2 = Math.max(-90, Math.min(90, lat + random.nextGaussian() * 5));
+                double lng2 = lng + random.nextGaussian() * 5;
+                lng2 = lng2 > 180 ? lng2 - 360 : lng2 < -180 ? lng2 + 360 : lng2;
+                double expected = haversine(lat, lng, lat2, lng2);
+                // Points right on the radius may go either way through rounding
+                if (Math.abs(expected - radiusKm) < 1e-6) {
+                    continue;
+                }
+
+                double distance = kernel.distanceWithin(lat2, lng2);
+                if (expected <= radiusKm) {
+                    assertThat(distance).isCloseTo(expected, within(1e-6));
+                } else {
+                    assertThat(distance).isEqualTo(-1);
+                }
+            }
+        }
+    }
+
+    @Test
+    void keepsHitsFarAcrossLongitudeNearThePoles() {
+        // 551km away but 110 degrees of longitude apart, where the equirectangular estimate is far too long
+        HaversineKernel kernel = new HaversineKernel(85.598, -47.521, 562);
+
+        assertThat(kernel.distanceWithin(88.800, -158.234)).isCloseTo(haversine(85.598, -47.521, 88.800, -158.234), within(1e-9));
+
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            double lat = 80 + random.nextDouble() * 10;
+            double lng = random.nextDouble() * 360 - 180;
+            double lat2 = 80 + random.nextDouble() * 10;
+            double lng2 = random.nextDouble() * 360 - 180;
+            double radiusKm = random.nextDouble() * 640;
+            double expected = haversine(lat, lng, lat2, lng2);
+            if (expected < radiusKm - 1e-6) {
+                assertThat(new HaversineKernel(lat, lng, radiusKm).contains(lat2, lng2)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void wrapsLongitudeAcrossTheAntimeridian() {
+        HaversineKernel kernel = new HaversineKernel(0, 179.95, 20);
+
+        assertThat(kernel.contains(0, -179.95)).isTrue();
+        assertThat(kernel.distanceWithin(0, -179.95)).isCloseTo(haversine(0, 179.95, 0, -179.95), within(1e-9));
+        assertThat(kernel.contains(0, -179.5)).isFalse();
+    }
+
+    @Test
+    void filterWritesHitsIntoTheCallerBuffers() {
+        double[] lats = {52.520, 52.390, 48.137, 52.530};
+        double[] lngs = {13.405, 13.065, 11.575, 13.405};
+        double[] cosLats = new double[lats.length];
+        for (int i = 0; i < lats.length; i++) {
+            cosLats[i] = Math.cos(Math.toRadians(lats[i]));
+        }
+        int[] hitIndex = new int[lats.length];
+        double[] hitDistanceKm = new double[lats.length];
+
+        HaversineKernel kernel = new HaversineKernel(52.520, 13.405, 30);
+        int hits = kernel.filter(lats, lngs, cosLats, 3, hitIndex, hitDistanceKm);
+
+        // Munich is out of range and the last entry is past size
+        assertThat(hits).isEqualTo(2);
+        assertThat(hitIndex[0]).isEqualTo(0);
+        assertThat(hitIndex[1]).isEqualTo(1);
+        assertThat(hitDistanceKm[1]).isCloseTo(haversine(52.520, 13.405, 52.390, 13.065), within(1e-9));
+    }
+
+    // Reference implementation the kernel replaced
+    private static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * GeoMath.EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
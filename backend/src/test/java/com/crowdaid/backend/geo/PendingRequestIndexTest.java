@@ -0,0 +1,105 @@
+package com.crowdaid.backend.geo;
+
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.event.HelpRequestChangedEvent;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.model.User;
+import com.crowdaid.backend.repository.HelpRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PendingRequestIndexTest {
+
+    private static final double LAT = 52.52;
+    private static final double LNG = 13.405;
+
+    private HelpRequestRepository helpRequestRepository;
+    private PendingRequestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        helpRequestRepository = mock(HelpRequestRepository.class);
+        index = new PendingRequestIndex(helpRequestRepository, 0.05, true);
+    }
+
+    @Test
+    void changesCommittedDuringTheSnapshotAreReplayedOnTopOfIt() {
+        HelpRequest accepted = helpRequest(1, HelpRequest.Status.PENDING);
+        HelpRequest untouched = helpRequest(2, HelpRequest.Status.PENDING);
+        // The snapshot still sees request 1 as pending, but it was accepted and request 3 was
+        // created while the query ran
+        when(helpRequestRepository.findByStatus(HelpRequest.Status.PENDING)).thenAnswer(invocation -> {
+            index.onHelpRequestChanged(HelpRequestChangedEvent.statusChanged(
+                    response(1, HelpRequest.Status.ACCEPTED), HelpRequest.Status.PENDING));
+            index.onHelpRequestChanged(HelpRequestChangedEvent.created(response(3, HelpRequest.Status.PENDING)));
+            assertThat(index.isReady()).isFalse();
+            assertThat(index.size()).isZero();
+            return List.of(accepted, untouched);
+        });
+
+        index.warmUp();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(ids(index.findWithin(LAT, LNG, 10))).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void changesAfterTheWarmUpApplyDirectly() {
+        when(helpRequestRepository.findByStatus(HelpRequest.Status.PENDING))
+                .thenReturn(List.of(helpRequest(1, HelpRequest.Status.PENDING)));
+        index.warmUp();
+
+        index.onHelpRequestChanged(HelpRequestChangedEvent.created(response(2, HelpRequest.Status.PENDING)));
+        index.onHelpRequestChanged(HelpRequestChangedEvent.deleted(response(1, HelpRequest.Status.PENDING)));
+
+        assertThat(ids(index.findWithin(LAT, LNG, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void disabledIndexNeverLoadsOrBecomesReady() {
+        PendingRequestIndex disabled = new PendingRequestIndex(helpRequestRepository, 0.05, false);
+
+        disabled.warmUp();
+        disabled.onHelpRequestChanged(HelpRequestChangedEvent.created(response(1, HelpRequest.Status.PENDING)));
+
+        assertThat(disabled.isReady()).isFalse();
+        assertThat(disabled.size()).isZero();
+    }
+
+    private static HelpRequestResponse response(long id, HelpRequest.Status status) {
+        return new HelpRequestResponse(helpRequest(id, status));
+    }
+
+    private static HelpRequest helpRequest(long id, HelpRequest.Status status) {
+        User requester = new User("Alice", "alice", "alice@example.com", "password");
+        requester.setId(7L);
+
+        HelpRequest helpRequest = new HelpRequest();
+        helpRequest.setId(id);
+        helpRequest.setDescription("Groceries");
+        helpRequest.setAddress("Alexanderplatz 1");
+        helpRequest.setLatitude(LAT + id * 0.001);
+        helpRequest.setLongitude(LNG);
+        helpRequest.setRequester(requester);
+        helpRequest.setStatus(status);
+        helpRequest.setCreatedAt(Instant.now());
+        helpRequest.setUpdatedAt(Instant.now());
+        return helpRequest;
+    }
+
+    private static List<Long> ids(List<HelpRequestResponse> responses) {
+        List<Long> ids = new ArrayList<>();
+        for (HelpRequestResponse response : responses) {
+            ids.add(response.getId());
+        }
+        return ids;
+    }
+}
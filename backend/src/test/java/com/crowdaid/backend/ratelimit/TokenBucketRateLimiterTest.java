@@ -0,0 +1,140 @@
+package com.crowdaid.backend.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void spendsCapacityThenLimitsWithRetryAfter() {
+        TokenBucketRateLimiter limiter = limiter(100, httpRule("auth", 3, 1));
+        TokenBucketRateLimiter.CompiledRule rule = limiter.findHttpRule("POST", "/api/auth/signin");
+
+        assertThat(limiter.tryAcquire(rule, "10.0.0.1").remaining()).isEqualTo(2);
+        assertThat(limiter.tryAcquire(rule, "10.0.0.1").remaining()).isEqualTo(1);
+        assertThat(limiter.tryAcquire(rule, "10.0.0.1").remaining()).isEqualTo(0);
+
+        TokenBucketRateLimiter.Decision limited = limiter.tryAcquire(rule, "10.0.0.1");
+        assertThat(limited.allowed()).isFalse();
+        assertThat(limited.limit()).isEqualTo(3);
+        // One token per second, so the next one is at most a second away
+        assertThat(limited.retryAfterMs()).isBetween(1L, 1000L);
+
+        // Other callers have their own bucket
+        assertThat(limiter.tryAcquire(rule, "10.0.0.2").allowed()).isTrue();
+    }
+
+    @Test
+    void concurrentCallersNeverSpendMoreThanTheBucketHolds() throws Exception {
+        int capacity = 1000;
+        int threads = 8;
+        int attemptsPerThread = 500;
+        TokenBucketRateLimiter limiter = limiter(100, httpRule("send", capacity, 1));
+        TokenBucketRateLimiter.CompiledRule rule = limiter.findHttpRule("POST", "/api/auth/signin");
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (limiter.tryAcquire(rule, "shared").allowed()) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get(30, TimeUnit.SECONDS);
+            }
+            long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt);
+
+            // A lost compare-and-set would hand out the same token twice
+            assertThat(allowed).isBetween(capacity, capacity + (int) elapsedSeconds + 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void newCallersShareTheOverflowBucketOnceTheMapIsFull() {
+        TokenBucketRateLimiter limiter = limiter(2, httpRule("auth", 2, 1));
+        TokenBucketRateLimiter.CompiledRule rule = limiter.findHttpRule("POST", "/api/auth/signin");
+
+        // Two buckets that still hold spent tokens, so the eager sweep cannot drop them
+        limiter.tryAcquire(rule, "a");
+        limiter.tryAcquire(rule, "b");
+
+        assertThat(limiter.tryAcquire(rule, "c").allowed()).isTrue();
+        assertThat(limiter.tryAcquire(rule, "d").allowed()).isTrue();
+        assertThat(limiter.tryAcquire(rule, "e").allowed()).isFalse();
+        assertThat(limiter.bucketCount()).isEqualTo(3);
+    }
+
+    @Test
+    void sweepDropsOnlyFullBuckets() {
+        TokenBucketRateLimiter limiter = limiter(100, httpRule("auth", 2, 1));
+        TokenBucketRateLimiter.CompiledRule rule = limiter.findHttpRule("POST", "/api/auth/signin");
+        limiter.tryAcquire(rule, "spent");
+
+        limiter.sweep();
+
+        assertThat(limiter.bucketCount()).isEqualTo(1);
+        assertThat(limiter.topLimited(10)).isEmpty();
+    }
+
+    @Test
+    void matchesRulesByMethodAndPattern() {
+        RateLimitProperties.Rule nearby = httpRule("nearby", 10, 10);
+        nearby.setMethod("GET");
+        nearby.setPattern("/api/help-requests/nearby/**");
+        TokenBucketRateLimiter limiter = limiter(100, nearby);
+
+        assertThat(limiter.findHttpRule("GET", "/api/help-requests/nearby/page").getName()).isEqualTo("nearby");
+        assertThat(limiter.findHttpRule("POST", "/api/help-requests/nearby/page")).isNull();
+        assertThat(limiter.findHttpRule("GET", "/api/help-requests/1")).isNull();
+    }
+
+    @Test
+    void rejectsCapacitiesThatDoNotFitTheTokenBits() {
+        assertThatThrownBy(() -> limiter(100, httpRule("huge", 5000, 1)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> limiter(100, httpRule("empty", 0, 1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static TokenBucketRateLimiter limiter(int maxBuckets, RateLimitProperties.Rule rule) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBuckets(maxBuckets);
+        properties.setHttp(List.of(rule));
+        return new TokenBucketRateLimiter(properties, new SimpleMeterRegistry());
+    }
+
+    private static RateLimitProperties.Rule httpRule(String name, int capacity, int refillPerSecond) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName(name);
+        rule.setPattern("/api/auth/**");
+        rule.setCapacity(capacity);
+        rule.setRefillPerSecond(refillPerSecond);
+        return rule;
+    }
+}
@@ -0,0 +1,143 @@
+package com.crowdaid.backend.repository;
+
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.model.DateAudit;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.model.RoleName;
+import com.crowdaid.backend.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement counts for the listing and my-requests paths, which must not grow with the number
+ * of requests returned: mapping to {@link HelpRequestResponse} reads both participants.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class HelpRequestRepositoryTest {
+
+    private static final int REQUESTS_PER_USER = 5;
+    private static final List<String> ALL_STATUSES =
+            List.of("PENDING", "ACCEPTED", "IN_PROGRESS", "COMPLETED", "CANCELLED");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private HelpRequestRepository helpRequestRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User requester;
+    private User volunteer;
+
+    @BeforeEach
+    void setUp() {
+        requester = persistUser("requester");
+        volunteer = persistUser("volunteer");
+        User other = persistUser("other");
+        for (int i = 0; i < REQUESTS_PER_USER; i++) {
+            persistRequest(requester, null, HelpRequest.Status.PENDING, 52.52 + i * 0.001);
+            persistRequest(other, requester, HelpRequest.Status.ACCEPTED, 52.52 + i * 0.001);
+            persistRequest(other, volunteer, HelpRequest.Status.IN_PROGRESS, 52.52 + i * 0.001);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void nearbyListingLoadsParticipantsInOneStatement() {
+        List<HelpRequestResponse> responses = toResponses(
+                helpRequestRepository.findNearbyPendingRequests(52.0, 53.0, 13.0, 14.0));
+
+        assertThat(responses).hasSize(REQUESTS_PER_USER);
+        assertThat(responses).allSatisfy(response -> assertThat(response.getRequester().getUsername()).isEqualTo("requester"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pendingSnapshotLoadsParticipantsInOneStatement() {
+        List<HelpRequestResponse> responses = toResponses(helpRequestRepository.findByStatus(HelpRequest.Status.PENDING));
+
+        assertThat(responses).hasSize(REQUESTS_PER_USER);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void myRequestsTakeOneStatementForIdsAndOneForRows() {
+        List<Long> ids = helpRequestRepository.findLatestUserRequestIds(requester.getId(), ALL_STATUSES, 100);
+        List<HelpRequestResponse> responses = toResponses(helpRequestRepository.findWithParticipantsByIdIn(ids));
+
+        // Created as requester plus volunteered for
+        assertThat(responses).hasSize(2 * REQUESTS_PER_USER);
+        assertThat(responses).filteredOn(response -> response.getVolunteer() != null)
+                .allSatisfy(response -> assertThat(response.getVolunteer().getUsername()).isEqualTo("requester"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void myRequestsCursorContinuesWhereTheFirstPageStopped() {
+        List<Long> firstPage = helpRequestRepository.findLatestUserRequestIds(requester.getId(), ALL_STATUSES, 4);
+        HelpRequest last = helpRequestRepository.findById(firstPage.get(firstPage.size() - 1)).orElseThrow();
+        List<Long> rest = helpRequestRepository.findUserRequestIds(requester.getId(), ALL_STATUSES,
+                last.getCreatedAt(), last.getId(), 100);
+
+        assertThat(firstPage).hasSize(4);
+        assertThat(rest).hasSize(2 * REQUESTS_PER_USER - 4).doesNotContainAnyElementsOf(firstPage);
+    }
+
+    // Helper method to map entities the way the service does, which touches both participants
+    private static List<HelpRequestResponse> toResponses(List<HelpRequest> helpRequests) {
+        return helpRequests.stream()
+                .map(HelpRequestResponse::new)
+                .collect(Collectors.toList());
+    }
+
+    private User persistUser(String username) {
+        User user = new User(username, username, username + "@example.com", "password");
+        user.setRoles(Set.of(RoleName.ROLE_USER, RoleName.ROLE_VOLUNTEER));
+        audit(user);
+        return entityManager.persist(user);
+    }
+
+    private void persistRequest(User requester, User volunteer, HelpRequest.Status status, double latitude) {
+        HelpRequest helpRequest = new HelpRequest();
+        helpRequest.setDescription("Groceries");
+        helpRequest.setAddress("Alexanderplatz 1");
+        helpRequest.setLatitude(latitude);
+        helpRequest.setLongitude(13.405);
+        helpRequest.setRequester(requester);
+        helpRequest.setVolunteer(volunteer);
+        helpRequest.setStatus(status);
+        audit(helpRequest);
+        entityManager.persist(helpRequest);
+    }
+
+    // Auditing is not enabled in a JPA slice, so the timestamps are set by hand
+    private static void audit(DateAudit entity) {
+        Instant now = Instant.now();
+        entity.setCreatedAt(now);
+        entity.setUpdatedAt(now);
+    }
+}
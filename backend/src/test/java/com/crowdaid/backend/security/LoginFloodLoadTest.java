@@ -0,0 +1,172 @@
+package com.crowdaid.backend.security;
+
+import com.crowdaid.backend.dto.LoginRequest;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.model.RoleName;
+import com.crowdaid.backend.model.User;
+import com.crowdaid.backend.repository.HelpRequestRepository;
+import com.crowdaid.backend.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A sign-in flood against a deliberately small hashing pool, while the same user keeps reading
+ * a help request with a token. BCrypt work is confined to {@link PasswordHashingExecutor}, so
+ * the flood should only be refused with 503, never slow down authenticated reads. Rate limiting
+ * is off so every sign-in reaches the pool.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.rate-limit.enabled=false",
+        "app.auth.hashing.pool-size=2",
+        "app.auth.hashing.queue-capacity=4"
+})
+@ActiveProfiles("test")
+class LoginFloodLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginFloodLoadTest.class);
+
+    private static final int FLOODERS = 32;
+    private static final int READS = 200;
+    private static final long MAX_READ_P99_MS = 500;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HelpRequestRepository helpRequestRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private User user;
+    private HelpRequest helpRequest;
+
+    @BeforeEach
+    void setUp() {
+        User flooded = new User("Flooded", "flooded", "flooded@example.com", passwordEncoder.encode("password"));
+        flooded.setRoles(Set.of(RoleName.ROLE_USER));
+        flooded.setCreatedAt(Instant.now());
+        flooded.setUpdatedAt(Instant.now());
+        user = userRepository.save(flooded);
+
+        HelpRequest pending = new HelpRequest();
+        pending.setDescription("Groceries");
+        pending.setAddress("Alexanderplatz 1");
+        pending.setLatitude(52.52);
+        pending.setLongitude(13.405);
+        pending.setRequester(user);
+        pending.setCreatedAt(Instant.now());
+        pending.setUpdatedAt(Instant.now());
+        helpRequest = helpRequestRepository.save(pending);
+    }
+
+    @AfterEach
+    void tearDown() {
+        helpRequestRepository.deleteById(helpRequest.getId());
+        userRepository.delete(user);
+    }
+
+    @Test
+    void readsStayFastWhileSignInsSaturateTheHashingPool() throws Exception {
+        ResponseEntity<JsonNode> signedIn = restTemplate.postForEntity("/api/auth/signin", login(), JsonNode.class);
+        assertThat(signedIn.getStatusCode()).isEqualTo(HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(signedIn.getBody().get("accessToken").asText());
+        HttpEntity<Void> authorized = new HttpEntity<>(headers);
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger overloaded = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(FLOODERS);
+        List<Future<?>> flooders = new ArrayList<>();
+        try {
+            for (int i = 0; i < FLOODERS; i++) {
+                flooders.add(executor.submit(() -> {
+                    while (flooding.get()) {
+                        int status = restTemplate.postForEntity("/api/auth/signin", login(), String.class)
+                                .getStatusCode().value();
+                        if (status == HttpStatus.OK.value()) {
+                            accepted.incrementAndGet();
+                        } else if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                            overloaded.incrementAndGet();
+                        } else {
+                            unexpected.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+
+            // Only measure once the pool is refusing work, i.e. actually saturated
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (overloaded.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(overloaded.get()).as("sign-ins refused by the hashing pool").isPositive();
+
+            long[] latencies = new long[READS];
+            for (int i = 0; i < READS; i++) {
+                long before = System.nanoTime();
+                ResponseEntity<String> read = restTemplate.exchange(
+                        "/api/help-requests/" + helpRequest.getId(), HttpMethod.GET, authorized, String.class);
+                latencies[i] = System.nanoTime() - before;
+                assertThat(read.getStatusCode()).isEqualTo(HttpStatus.OK);
+            }
+
+            flooding.set(false);
+            for (Future<?> flooder : flooders) {
+                flooder.get(30, TimeUnit.SECONDS);
+            }
+
+            Arrays.sort(latencies);
+            long p50Ms = TimeUnit.NANOSECONDS.toMillis(latencies[READS / 2 - 1]);
+            long p99Ms = TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(READS * 0.99) - 1]);
+            logger.info("During the sign-in flood ({} accepted, {} refused): help request read p50 {} ms, p99 {} ms",
+                    accepted.get(), overloaded.get(), p50Ms, p99Ms);
+
+            assertThat(unexpected.get()).isZero();
+            assertThat(p99Ms).isLessThan(MAX_READ_P99_MS);
+        } finally {
+            flooding.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    private static LoginRequest login() {
+        LoginRequest login = new LoginRequest();
+        login.setUsernameOrEmail("flooded");
+        login.setPassword("password");
+        return login;
+    }
+}
@@ -0,0 +1,50 @@
+package com.crowdaid.backend.service;
+
+import com.crowdaid.backend.exception.AppException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CreatedAtCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        Instant createdAt = Instant.parse("2024-03-01T12:34:56.123456Z");
+
+        CreatedAtCursor cursor = CreatedAtCursor.decode(new CreatedAtCursor(createdAt, 42).encode());
+
+        assertThat(cursor.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(cursor.getId()).isEqualTo(42);
+    }
+
+    @Test
+    void encodesUrlSafeWithoutPadding() {
+        String token = new CreatedAtCursor(Instant.parse("2024-03-01T00:00:00Z"), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void missingTokenMeansFirstPage() {
+        assertThat(CreatedAtCursor.decode(null)).isNull();
+        assertThat(CreatedAtCursor.decode("")).isNull();
+        assertThat(CreatedAtCursor.decode("  ")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> CreatedAtCursor.decode("not base64!")).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> CreatedAtCursor.decode(encode("2024-03-01T00:00:00Z"))).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> CreatedAtCursor.decode(encode("yesterday|1"))).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> CreatedAtCursor.decode(encode("2024-03-01T00:00:00Z|x"))).isInstanceOf(AppException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,215 @@
+package com.crowdaid.backend.service;
+
+import com.crowdaid.backend.dto.HelpRequestResponse;
+import com.crowdaid.backend.exception.HelpRequestAlreadyTakenException;
+import com.crowdaid.backend.model.HelpRequest;
+import com.crowdaid.backend.model.RoleName;
+import com.crowdaid.backend.model.User;
+import com.crowdaid.backend.repository.HelpRequestRepository;
+import com.crowdaid.backend.repository.UserRepository;
+import com.crowdaid.backend.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Volunteers racing to accept the same request: the conditional UPDATE must leave exactly one
+ * of them assigned and reject the rest. Not transactional itself, so every accept runs in its
+ * own transaction as it does in production. The contended run also logs the accept throughput
+ * and p99 latency, as a baseline for changes to the accept path.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class HelpRequestAcceptConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HelpRequestAcceptConcurrencyTest.class);
+
+    private static final int VOLUNTEERS = 8;
+    private static final int CONTENDED_REQUESTS = 100;
+
+    @Autowired
+    private HelpRequestService helpRequestService;
+
+    @Autowired
+    private HelpRequestRepository helpRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<HelpRequest> helpRequests = new ArrayList<>();
+    private final List<UserPrincipal> volunteers = new ArrayList<>();
+    private User requester;
+    private HelpRequest helpRequest;
+
+    @BeforeEach
+    void setUp() {
+        requester = saveUser("requester", RoleName.ROLE_USER);
+        for (int i = 0; i < VOLUNTEERS; i++) {
+            User user = saveUser("volunteer" + i, RoleName.ROLE_VOLUNTEER);
+            volunteers.add(new UserPrincipal(user.getId(), user.getName(), user.getUsername(), user.getEmail(),
+                    user.getPassword(), List.of(new SimpleGrantedAuthority("ROLE_VOLUNTEER"))));
+        }
+        helpRequest = savePendingRequest();
+    }
+
+    @AfterEach
+    void tearDown() {
+        helpRequestRepository.deleteAll(helpRequests);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void exactlyOneConcurrentAcceptWins() throws Exception {
+        // Every thread waits at the gate so the accepts overlap as much as possible
+        CountDownLatch ready = new CountDownLatch(VOLUNTEERS);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(VOLUNTEERS);
+        List<Future<HelpRequestResponse>> results = new ArrayList<>();
+        try {
+            for (UserPrincipal volunteer : volunteers) {
+                Callable<HelpRequestResponse> accept = () -> {
+                    ready.countDown();
+                    start.await();
+                    return helpRequestService.acceptHelpRequest(helpRequest.getId(), volunteer);
+                };
+                results.add(executor.submit(accept));
+            }
+            assertThat(ready.await(10, TimeUnit.SECONDS)).isTrue();
+            start.countDown();
+
+            List<HelpRequestResponse> accepted = new ArrayList<>();
+            int taken = 0;
+            for (Future<HelpRequestResponse> result : results) {
+                try {
+                    accepted.add(result.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(HelpRequestAlreadyTakenException.class);
+                    taken++;
+                }
+            }
+
+            assertThat(accepted).hasSize(1);
+            assertThat(taken).isEqualTo(VOLUNTEERS - 1);
+
+            HelpRequest stored = helpRequestRepository.findWithParticipantsById(helpRequest.getId()).orElseThrow();
+            assertThat(stored.getStatus()).isEqualTo(HelpRequest.Status.ACCEPTED);
+            assertThat(stored.getVolunteer().getId()).isEqualTo(accepted.get(0).getVolunteer().getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void reportsThroughputAndTailLatencyUnderContention() throws Exception {
+        List<HelpRequest> contended = new ArrayList<>();
+        for (int i = 0; i < CONTENDED_REQUESTS; i++) {
+            contended.add(savePendingRequest());
+        }
+
+        // Every volunteer tries every request, in a different order per thread
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(VOLUNTEERS);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (int v = 0; v < VOLUNTEERS; v++) {
+                UserPrincipal volunteer = volunteers.get(v);
+                int offset = v * CONTENDED_REQUESTS / VOLUNTEERS;
+                Callable<long[]> acceptAll = () -> {
+                    start.await();
+                    long[] latencies = new long[CONTENDED_REQUESTS];
+                    for (int i = 0; i < CONTENDED_REQUESTS; i++) {
+                        Long id = contended.get((offset + i) % CONTENDED_REQUESTS).getId();
+                        long before = System.nanoTime();
+                        try {
+                            helpRequestService.acceptHelpRequest(id, volunteer);
+                        } catch (HelpRequestAlreadyTakenException e) {
+                            // Lost the race, which is the expected outcome for all but one
+                        }
+                        latencies[i] = System.nanoTime() - before;
+                    }
+                    return latencies;
+                };
+                results.add(executor.submit(acceptAll));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+
+            List<long[]> perThread = new ArrayList<>();
+            for (Future<long[]> result : results) {
+                perThread.add(result.get(60, TimeUnit.SECONDS));
+            }
+            long elapsedNanos = System.nanoTime() - startedAt;
+
+            long[] latencies = perThread.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            double seconds = elapsedNanos / 1e9;
+            logger.info("{} contended accepts by {} volunteers: {} accepts/s, p50 {} ms, p99 {} ms, max {} ms",
+                    latencies.length, VOLUNTEERS, Math.round(latencies.length / seconds),
+                    millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.99)),
+                    millis(latencies[latencies.length - 1]));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (HelpRequest request : contended) {
+            HelpRequest stored = helpRequestRepository.findWithParticipantsById(request.getId()).orElseThrow();
+            assertThat(stored.getStatus()).isEqualTo(HelpRequest.Status.ACCEPTED);
+            assertThat(stored.getVolunteer()).isNotNull();
+        }
+    }
+
+    // Helper method for the nearest-rank percentile of sorted latencies
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private HelpRequest savePendingRequest() {
+        HelpRequest pending = new HelpRequest();
+        pending.setDescription("Groceries");
+        pending.setAddress("Alexanderplatz 1");
+        pending.setLatitude(52.52);
+        pending.setLongitude(13.405);
+        pending.setRequester(requester);
+        pending.setCreatedAt(Instant.now());
+        pending.setUpdatedAt(Instant.now());
+        HelpRequest saved = helpRequestRepository.save(pending);
+        helpRequests.add(saved);
+        return saved;
+    }
+
+    private User saveUser(String username, RoleName role) {
+        User user = new User(username, username, username + "@example.com", "password");
+        user.setRoles(Set.of(role));
+        user.setCreatedAt(Instant.now());
+        user.setUpdatedAt(Instant.now());
+        User saved = userRepository.save(user);
+        users.add(saved);
+        return saved;
+    }
+}